@@ -5,12 +5,14 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 import dungeonmania.DungeonManiaController;
+import dungeonmania.SessionRegistry;
 import dungeonmania.exceptions.InvalidActionException;
 import dungeonmania.response.models.GenericResponseWrapper;
 import dungeonmania.util.Direction;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -32,22 +34,29 @@ public class App implements SparkApplication {
             super(message);
         }
     }
-    private static volatile Map<String, DungeonManiaController> sessionStates = new HashMap<>();
+    private static final SessionRegistry sessions = new SessionRegistry(
+        getSetting("MAX_LIVE_GAMES", 500),
+        Duration.ofMinutes(getSetting("IDLE_MINUTES", 10)),
+        Duration.ofHours(getSetting("SESSION_EXPIRY_HOURS", 24)),
+        Paths.get("build/sessions"),
+        Clock.systemUTC());
+
+    // read from the environment like scintilla's settings, e.g. dungeonmania:MAX_LIVE_GAMES
+    private static int getSetting(String name, int defaultValue) {
+        try {
+            return Integer.parseInt(System.getenv("dungeonmania:" + name));
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
 
-    private static synchronized DungeonManiaController getDungeonManiaController(Request request) {
+    private static String getSessionId(Request request) {
         String session = request.session().id();
         if (session == null) {
             System.out.println("No Session Found... using default.");
             session = "__DEFAULT_SESSION__";
         }
-
-        if (sessionStates.containsKey(session)) {
-            return sessionStates.get(session);
-        } else {
-            DungeonManiaController bc = new DungeonManiaController();
-            sessionStates.put(session, bc);
-            return bc;
-        }
+        return session;
     }
 
     private static <T> GenericResponseWrapper<T> callWithWrapper(Supplier<T> runnable) {
@@ -62,23 +71,28 @@ public class App implements SparkApplication {
     private static <T> GenericResponseWrapper<T> callUsingSessionAndArgument(
         Request request, Function<DungeonManiaController, T> runnable) {
         try {
-            DungeonManiaController dmc = getDungeonManiaController(request);
-            synchronized (dmc) {
-                return GenericResponseWrapper.ok(runnable.apply(dmc));
-            }
+            // calls for the same session queue up behind each other; other sessions aren't held up
+            return sessions.call(getSessionId(request), dmc -> GenericResponseWrapper.ok(runnable.apply(dmc)));
         } catch (Exception e) {
             e.printStackTrace();
             return GenericResponseWrapper.err(e);
         }
     }
 
+    // clients that pass "since" get only what changed after that version, everyone else the full response
+    private static Long since(Request request) {
+        String since = request.queryParams("since");
+        return (since == null) ? null : Long.parseLong(since);
+    }
+
     @Override
     public void init() {
         Scintilla.initialize();
+        // scan for dungeons and configs now rather than on the first request
+        DungeonManiaController.dungeons();
         GsonBuilder gsonBuilder = new GsonBuilder();
 
         Gson gson = gsonBuilder.create();
-        Object globalLock = new Object();
 
         Spark.after((request, response) -> {
             response.header("Access-Control-Allow-Origin", "*");
@@ -87,17 +101,15 @@ public class App implements SparkApplication {
         });
 
         Spark.get("/api/dungeons/", "application/json", (request, response) -> {
-            // we don't *need* to globally lock this but we might as well just to keep a nice standard.
-            synchronized (globalLock) {
-                return callWithWrapper(() -> DungeonManiaController.dungeons());
-            }
+            return callWithWrapper(() -> DungeonManiaController.dungeons());
         }, gson::toJson);
 
         Spark.get("/api/configs/", "application/json", (request, response) -> {
-            // we don't *need* to globally lock this but we might as well just to keep a nice standard.
-            synchronized (globalLock) {
-                return callWithWrapper(() -> DungeonManiaController.configs());
-            }
+            return callWithWrapper(() -> DungeonManiaController.configs());
+        }, gson::toJson);
+
+        Spark.get("/api/sessions/stats/", "application/json", (request, response) -> {
+            return callWithWrapper(() -> sessions.getStats());
         }, gson::toJson);
 
         Spark.post("/api/game/new/", "application/json", (request, response) -> {
@@ -109,7 +121,9 @@ public class App implements SparkApplication {
         Spark.post("/api/game/tick/item/", "application/json", (request, response) -> {
             return callUsingSessionAndArgument(request, (dmc) -> {
                 try {
-                    return dmc.tick(request.queryParams("itemUsed"));
+                    String itemUsed = request.queryParams("itemUsed");
+                    Long since = since(request);
+                    return (since == null) ? dmc.tick(itemUsed) : dmc.tick(itemUsed, since);
                 } catch (InvalidActionException e) {
                     throw new InvalidActionExceptionAPI(e.getMessage());
                 }
@@ -117,15 +131,19 @@ public class App implements SparkApplication {
         }, gson::toJson);
 
         Spark.post("/api/game/tick/movement/", "application/json", (request, response) -> {
-            return callUsingSessionAndArgument(
-                request,
-                (dmc) -> dmc.tick(Direction.valueOf(request.queryParams("movementDirection").toUpperCase())));
+            return callUsingSessionAndArgument(request, (dmc) -> {
+                Direction direction = Direction.valueOf(request.queryParams("movementDirection").toUpperCase());
+                Long since = since(request);
+                return (since == null) ? dmc.tick(direction) : dmc.tick(direction, since);
+            });
         }, gson::toJson);
 
         Spark.post("/api/game/build/", "application/json", (request, response) -> {
             return callUsingSessionAndArgument(request, (dmc) -> {
                 try {
-                    return dmc.build(request.queryParams("buildable"));
+                    String buildable = request.queryParams("buildable");
+                    Long since = since(request);
+                    return (since == null) ? dmc.build(buildable) : dmc.build(buildable, since);
                 } catch (InvalidActionException e) {
                     throw new InvalidActionExceptionAPI(e.getMessage());
                 }
@@ -143,13 +161,41 @@ public class App implements SparkApplication {
         Spark.post("/api/game/interact/", "application/json", (request, response) -> {
             return callUsingSessionAndArgument(request, (dmc) -> {
                 try {
-                    return dmc.interact(request.queryParams("entityId"));
+                    String entityId = request.queryParams("entityId");
+                    Long since = since(request);
+                    return (since == null) ? dmc.interact(entityId) : dmc.interact(entityId, since);
                 } catch (InvalidActionException e) {
                     throw new InvalidActionExceptionAPI(e.getMessage());
                 }
             });
         }, gson::toJson);
 
+        Spark.get("/api/game/delta/", "application/json", (request, response) -> {
+            return callUsingSessionAndArgument(
+                request,
+                (dmc) -> dmc.getDelta(Long.parseLong(request.queryParams("since"))));
+        }, gson::toJson);
+
+        Spark.get("/api/game/battles/", "application/json", (request, response) -> {
+            return callUsingSessionAndArgument(
+                request,
+                (dmc) -> dmc.getBattlesSince(Long.parseLong(request.queryParams("cursor"))));
+        }, gson::toJson);
+
+        Spark.get("/api/game/battles/cursor/", "application/json", (request, response) -> {
+            return callUsingSessionAndArgument(request, (dmc) -> dmc.getBattleCursor());
+        }, gson::toJson);
+
+        Spark.post("/api/game/battles/file/", "application/json", (request, response) -> {
+            return callUsingSessionAndArgument(request, (dmc) -> dmc.setBattleLogFile(request.queryParams("name")));
+        }, gson::toJson);
+
+        Spark.post("/api/game/rewind/", "application/json", (request, response) -> {
+            return callUsingSessionAndArgument(
+                request,
+                (dmc) -> dmc.rewind(Integer.parseInt(request.queryParams("ticks"))));
+        }, gson::toJson);
+
         Spark.post("/api/game/dungeonResponseModel/", "application/json", (request, response) -> {
             return callUsingSessionAndArgument(request, (dmc) -> dmc.getDungeonResponseModel());
         }, gson::toJson);
@@ -4,22 +4,31 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.io.FileOutputStream;
-import java.io.ObjectOutputStream;
-import java.io.FileInputStream;
-import java.io.ObjectInputStream;
 import java.io.IOException;
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import org.json.JSONException;
+import dungeonmania.battles.BattleLog;
 import dungeonmania.exceptions.InvalidActionException;
+import dungeonmania.persistence.SaveFormat;
+import dungeonmania.persistence.TickHistory;
+import dungeonmania.response.models.BattleResponse;
+import dungeonmania.response.models.DeltaTracker;
+import dungeonmania.response.models.DungeonDelta;
 import dungeonmania.response.models.DungeonResponse;
 import dungeonmania.response.models.ResponseBuilder;
 import dungeonmania.util.Direction;
-import dungeonmania.util.FileLoader;
 
 public class DungeonManiaController {
+    private static final Path BATTLE_LOG_DIRECTORY = Paths.get("build", "battles");
+
     private Game game = null;
+    private DeltaTracker deltaTracker = new DeltaTracker();
+    private boolean compressSaves = false;
+    private TickHistory history = new TickHistory(0);
 
     public String getSkin() {
         return "default";
@@ -33,31 +42,31 @@ public class DungeonManiaController {
      * /dungeons
      */
     public static List<String> dungeons() {
-        return FileLoader.listFileNamesInResourceDirectory("dungeons");
+        return ResourceCatalog.dungeons();
     }
 
     /**
      * /configs
      */
     public static List<String> configs() {
-        return FileLoader.listFileNamesInResourceDirectory("configs");
+        return ResourceCatalog.configs();
     }
 
     /**
      * /game/new
      */
     public DungeonResponse newGame(String dungeonName, String configName) throws IllegalArgumentException {
-        if (!dungeons().contains(dungeonName)) {
+        if (!ResourceCatalog.hasDungeon(dungeonName)) {
             throw new IllegalArgumentException(dungeonName + " is not a dungeon that exists");
         }
 
-        if (!configs().contains(configName)) {
+        if (!ResourceCatalog.hasConfig(configName)) {
             throw new IllegalArgumentException(configName + " is not a configuration that exists");
         }
 
         try {
-            GameBuilder builder = new GameBuilder();
-            game = builder.setConfigName(configName).setDungeonName(dungeonName).buildGame();
+            game = ResourceCatalog.getTemplate(dungeonName, configName).newGame();
+            startHistory();
             return ResponseBuilder.getDungeonResponse(game);
         } catch (JSONException e) {
             return null;
@@ -75,33 +84,118 @@ public class DungeonManiaController {
      * /game/tick/item
      */
     public DungeonResponse tick(String itemUsedId) throws IllegalArgumentException, InvalidActionException {
-        return ResponseBuilder.getDungeonResponse(game.tick(itemUsedId));
+        return ResponseBuilder.getDungeonResponse(afterTick(game.tick(itemUsedId)));
+    }
+
+    /**
+     * /game/tick/item with since
+     * As tick, but returns only what changed since the given version, without building the full response
+     */
+    public DungeonDelta tick(String itemUsedId, long since) throws IllegalArgumentException, InvalidActionException {
+        afterTick(game.tick(itemUsedId));
+        return getDelta(since);
     }
 
     /**
      * /game/tick/movement
      */
     public DungeonResponse tick(Direction movementDirection) {
-        return ResponseBuilder.getDungeonResponse(game.tick(movementDirection));
+        return ResponseBuilder.getDungeonResponse(afterTick(game.tick(movementDirection)));
+    }
+
+    /**
+     * /game/tick/movement with since
+     */
+    public DungeonDelta tick(Direction movementDirection, long since) {
+        afterTick(game.tick(movementDirection));
+        return getDelta(since);
     }
 
     /**
      * /game/build
      */
     public DungeonResponse build(String buildable) throws IllegalArgumentException, InvalidActionException {
-        List<String> validBuildables = List.of("bow", "shield", "midnight_armour", "sceptre");
+        return ResponseBuilder.getDungeonResponse(afterTick(buildValid(buildable)));
+    }
+
+    /**
+     * /game/build with since
+     */
+    public DungeonDelta build(String buildable, long since) throws IllegalArgumentException, InvalidActionException {
+        afterTick(buildValid(buildable));
+        return getDelta(since);
+    }
+
+    private Game buildValid(String buildable) throws IllegalArgumentException, InvalidActionException {
+        List<String> validBuildables = game.getEntityFactory().getConfig().getRecipes().getNames();
         if (!validBuildables.contains(buildable)) {
-            throw new IllegalArgumentException("Only bow, shield, midnight_armour and sceptre can be built");
+            throw new IllegalArgumentException("Only " + String.join(", ", validBuildables) + " can be built");
         }
 
-        return ResponseBuilder.getDungeonResponse(game.build(buildable));
+        return game.build(buildable);
     }
 
     /**
      * /game/interact
      */
     public DungeonResponse interact(String entityId) throws IllegalArgumentException, InvalidActionException {
-        return ResponseBuilder.getDungeonResponse(game.interact(entityId));
+        return ResponseBuilder.getDungeonResponse(afterTick(game.interact(entityId)));
+    }
+
+    /**
+     * /game/interact with since
+     */
+    public DungeonDelta interact(String entityId, long since) throws IllegalArgumentException, InvalidActionException {
+        afterTick(game.interact(entityId));
+        return getDelta(since);
+    }
+
+    /**
+     * /game/delta
+     * @return what has changed since the given version, or a full snapshot if
+     * that isn't the version this controller last handed out
+     */
+    public DungeonDelta getDelta(long since) {
+        return deltaTracker.diff(game, since);
+    }
+
+    /**
+     * /game/battles
+     * @return the battles fought since the given cursor that are still retained
+     */
+    public List<BattleResponse> getBattlesSince(long cursor) {
+        return game.getBattleFacade().getBattleLog().getSince(cursor);
+    }
+
+    /**
+     * /game/battles/cursor
+     * @return the cursor to pass to getBattlesSince to fetch only later battles
+     */
+    public long getBattleCursor() {
+        return game.getBattleFacade().getBattleLog().getCursor();
+    }
+
+    /**
+     * /game/battles/file
+     * Append all later battles of the current game to build/battles/name, or stop if name is null
+     * @return the file battles are appended to, or null
+     * @throws IllegalArgumentException if name would put the file outside build/battles
+     */
+    public String setBattleLogFile(String name) throws IllegalArgumentException {
+        if (name == null) {
+            game.getBattleFacade().getBattleLog().setSink(null);
+            return null;
+        }
+        Path file = BATTLE_LOG_DIRECTORY.toAbsolutePath().normalize().resolve(name).normalize();
+        if (!isBattleLogFile(file))
+            throw new IllegalArgumentException(name + " is not a file in " + BATTLE_LOG_DIRECTORY);
+        game.getBattleFacade().getBattleLog().setSink(file.toString());
+        return file.toString();
+    }
+
+    private static boolean isBattleLogFile(Path file) {
+        Path directory = BATTLE_LOG_DIRECTORY.toAbsolutePath().normalize();
+        return file.startsWith(directory) && !file.equals(directory);
     }
 
     /**
@@ -109,19 +203,12 @@ public class DungeonManiaController {
      */
     public DungeonResponse saveGame(String name) {
         try {
-            File location = new File("build/saves");
-            location.mkdirs();
-            File newFile = new File("build/saves/" + name);
-            FileOutputStream fos = new FileOutputStream(newFile, false);
-            ObjectOutputStream oos = new ObjectOutputStream(fos);
-
-            oos.writeObject(game);
-            oos.flush();
-            oos.close();
+            Path location = Paths.get("build/saves");
+            Files.createDirectories(location);
+            SaveFormat.write(game, location.resolve(name), compressSaves);
             return ResponseBuilder.getDungeonResponse(game);
         } catch (IOException e) {
             throw new IllegalArgumentException(e.toString());
-
         }
     }
 
@@ -130,16 +217,24 @@ public class DungeonManiaController {
      */
     public DungeonResponse loadGame(String name) throws IllegalArgumentException {
         try {
-            FileInputStream fis = new FileInputStream("build/saves/" + name);
-            ObjectInputStream ois = new ObjectInputStream(fis);
-            game = (Game) ois.readObject();
-            ois.close();
+            game = SaveFormat.read(Paths.get("build/saves", name));
+            // a save carries its battle log file along, but only ever one in build/battles
+            BattleLog log = game.getBattleFacade().getBattleLog();
+            if (log.getSink() != null && !isBattleLogFile(Paths.get(log.getSink()).normalize())) log.setSink(null);
+            startHistory();
             return ResponseBuilder.getDungeonResponse(game);
-        } catch (ClassNotFoundException | IOException e) {
+        } catch (IOException e) {
             throw new IllegalArgumentException(e.toString());
         }
     }
 
+    /**
+     * Deflate saves written from now on. Loading detects compressed saves either way.
+     */
+    public void setCompressSaves(boolean compressSaves) {
+        this.compressSaves = compressSaves;
+    }
+
     /**
      * /games/all
      */
@@ -164,7 +259,41 @@ public class DungeonManiaController {
      * /game/rewind
      */
     public DungeonResponse rewind(int ticks) throws IllegalArgumentException {
-        return null;
+        game = history.rewind(ticks);
+        return ResponseBuilder.getDungeonResponse(game);
+    }
+
+    boolean hasGame() {
+        return game != null;
+    }
+
+    /**
+     * Write the current game to file and let go of it, with its rewind history.
+     * The next delta handed out is a full snapshot.
+     */
+    void spill(Path file) throws IOException {
+        SaveFormat.write(game, file, false);
+        game = null;
+        history = new TickHistory(0);
+        deltaTracker = new DeltaTracker();
     }
 
+    /**
+     * Read back a game written by spill. Its rewind history starts again from here.
+     */
+    void unspill(Path file) throws IOException {
+        game = SaveFormat.read(file);
+        startHistory();
+    }
+
+    private void startHistory() {
+        history = new TickHistory(game.getEntityFactory().getConfig().getRewindDepth());
+        history.record(game);
+    }
+
+    // every action that ticks the game is snapshotted so it can be rewound, if the config keeps history
+    private Game afterTick(Game ticked) {
+        history.record(ticked);
+        return ticked;
+    }
 }
@@ -0,0 +1,157 @@
+package dungeonmania;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import dungeonmania.battles.BattleFacade;
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.EntityFactory;
+import dungeonmania.entities.Player;
+import dungeonmania.goals.GoalFactory;
+import dungeonmania.map.GameMap;
+import dungeonmania.map.GraphNode;
+import dungeonmania.map.GraphNodeFactory;
+import dungeonmania.persistence.SaveContext;
+import dungeonmania.persistence.SaveRecord;
+
+/**
+ * DungeonTemplate -- a dungeon compiled against a config, ready to stamp out new games.
+ * Compiling builds one game the usual way and keeps what initialising it
+ * worked out: the saved state of each entity that init changed, such as paired
+ * portals and linked bombs and switches, and the callbacks it registered, in
+ * order. Every other entity is exactly as its constructor leaves it. Stamping
+ * a game constructs each entity from its parsed JSON with a fresh id and puts
+ * the kept state back, so the map is never scanned again.
+ */
+public final class DungeonTemplate {
+    private final String dungeonName;
+    private final GameConfig config;
+    private final JSONObject goals;
+    private final List<JSONObject> entities;
+    // how big the compiled game's map was, to size new maps; the map itself isn't kept
+    private final GameMap.Layout layout;
+
+    // ids below are the compiled game's; stamping swaps each for the new entity's
+    private final Map<String, Integer> indexById;
+    private final int[] initialised;
+    private final SaveRecord[] initialisedStates;
+    private final int[] referenced;
+    private final List<String> callbacks;
+    private final int initialTreasureCount;
+    private final int initialSunStoneCount;
+
+    private DungeonTemplate(String dungeonName, GameConfig config, JSONObject dungeon, Game compiled) {
+        this.dungeonName = dungeonName;
+        this.config = config;
+        this.goals = dungeon.optJSONObject("goal-condition");
+
+        JSONArray json = dungeon.getJSONArray("entities");
+        List<Entity> built = compiled.getMap().getEntities(Entity.class);
+        if (built.size() != json.length())
+            throw new IllegalStateException(dungeonName + " has entities the builder didn't place on the map");
+        this.entities = new ArrayList<>(json.length());
+        this.indexById = new HashMap<>();
+        for (int i = 0; i < json.length(); i++) {
+            entities.add(json.getJSONObject(i));
+            indexById.put(built.get(i).getId(), i);
+        }
+
+        List<Integer> changed = new ArrayList<>();
+        List<SaveRecord> states = new ArrayList<>();
+        Set<Integer> mentioned = new LinkedHashSet<>();
+        EntityFactory probe = new EntityFactory(config);
+        for (int i = 0; i < built.size(); i++) {
+            Entity entity = built.get(i);
+            Entity fresh = GraphNodeFactory.createEntity(entities.get(i), probe).getEntities().get(0);
+            SaveRecord state = SaveRecord.of(entity);
+            if (SaveRecord.of(fresh).withIds(id -> id.equals(fresh.getId()) ? entity.getId() : id).equals(state))
+                continue;
+            changed.add(i);
+            states.add(state);
+            // note every entity the state refers to, so stamping can resolve just those
+            state.withIds(id -> {
+                Integer index = indexById.get(id);
+                if (index != null) mentioned.add(index);
+                return id;
+            });
+        }
+        this.initialised = changed.stream().mapToInt(Integer::intValue).toArray();
+        this.initialisedStates = states.toArray(new SaveRecord[0]);
+        this.referenced = mentioned.stream().mapToInt(Integer::intValue).toArray();
+        this.layout = compiled.getMap().getLayout();
+        this.callbacks = List.copyOf(compiled.getCallbackIds());
+        this.initialTreasureCount = compiled.getInitialTreasureCount();
+        this.initialSunStoneCount = compiled.getInitialSunStoneCount();
+    }
+
+    /**
+     * Build the dungeon with the config once, through GameBuilder, and keep the result as a template
+     */
+    public static DungeonTemplate compile(String dungeonName, String configName) {
+        Game compiled = new GameBuilder().setDungeonName(dungeonName).setConfigName(configName).buildGame();
+        return new DungeonTemplate(dungeonName, ResourceCatalog.getConfig(configName),
+            ResourceCatalog.getDungeon(dungeonName), compiled);
+    }
+
+    /**
+     * A new game, as GameBuilder would have built it, with its own entities and ids
+     */
+    public Game newGame() {
+        return stamp(new EntityFactory(config));
+    }
+
+    /**
+     * A new game whose random choices are the same every time for the same seed
+     */
+    public Game newGame(long seed) {
+        return stamp(new EntityFactory(config, seed));
+    }
+
+    private Game stamp(EntityFactory factory) {
+        Game game = new Game(dungeonName);
+        game.setEntityFactory(factory);
+        game.setBattleFacade(new BattleFacade(config.getBattleLogRetention()));
+
+        GameMap map = GameMap.emptyLike(layout);
+        map.setGame(game);
+        Entity[] stamped = new Entity[entities.size()];
+        for (int i = 0; i < stamped.length; i++) {
+            GraphNode node = GraphNodeFactory.createEntity(entities.get(i), factory);
+            stamped[i] = node.getEntities().get(0);
+            map.addNode(node);
+            if (stamped[i] instanceof Player) map.setPlayer((Player) stamped[i]);
+        }
+        game.setMap(map);
+
+        UnaryOperator<String> freshIds = id -> {
+            Integer index = indexById.get(id);
+            return (index == null) ? id : stamped[index].getId();
+        };
+        SaveContext context = new SaveContext(factory);
+        for (int i : referenced) {
+            context.register(stamped[i]);
+        }
+        for (int k = 0; k < initialised.length; k++) {
+            stamped[initialised[k]].readState(initialisedStates[k].withIds(freshIds), context);
+        }
+
+        game.setId(UUID.randomUUID().toString());
+        game.setPlayer(map.getPlayer());
+        game.setInitialTreasureCount(initialTreasureCount);
+        game.setInitialSunStoneCount(initialSunStoneCount);
+        if (goals != null) game.setGoals(GoalFactory.createGoal(goals, config));
+        for (String id : callbacks) {
+            game.restoreCallback(freshIds.apply(id));
+        }
+        return game;
+    }
+}
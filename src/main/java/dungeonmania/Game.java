@@ -1,7 +1,6 @@
 package dungeonmania;
 
 import java.util.List;
-import java.util.PriorityQueue;
 import java.util.UUID;
 import java.io.Serializable;
 
@@ -16,6 +15,7 @@ import dungeonmania.entities.collectables.SunStone;
 import dungeonmania.entities.collectables.potions.Potion;
 import dungeonmania.entities.enemies.Enemy;
 import dungeonmania.entities.enemies.ZombieToast;
+import dungeonmania.entities.enemies.ZombieToastSpawner;
 import dungeonmania.entities.inventory.InventoryItem;
 import dungeonmania.exceptions.InvalidActionException;
 import dungeonmania.goals.Goal;
@@ -33,16 +33,20 @@ public class Game implements Serializable {
     private int initialTreasureCount;
     private int initialSunStoneCount;
     private EntityFactory entityFactory;
-    private boolean isInTick = false;
     public static final int PLAYER_MOVEMENT = 0;
     public static final int PLAYER_MOVEMENT_CALLBACK = 1;
     public static final int AI_MOVEMENT = 2;
     public static final int AI_MOVEMENT_CALLBACK = 3;
 
+    private static final String POTION_QUEUE = "potionQueue";
+    private static final String SCEPTRE_QUEUE = "sceptreQueue";
+    private static final String SPIDER_SPAWNER = "zombieToastSpawner";
+
     private int tickCount = 0;
-    //private static Comparator<ComparableCallback> comp = Comparator.comparing(ComparableCallback::getV);
-    private PriorityQueue<ComparableCallback> sub = new PriorityQueue<>(1, new MyComparator());
-    private PriorityQueue<ComparableCallback> addingSub = new PriorityQueue<>(1, new MyComparator());
+    private TickScheduler scheduler = new TickScheduler();
+
+    private transient String goalString = null;
+    private transient int goalTick;
 
     public Game(String dungeonName) {
         this.name = dungeonName;
@@ -55,10 +59,8 @@ public class Game implements Serializable {
         map.init();
         this.tickCount = 0;
         player = map.getPlayer();
-        register((Runnable & Serializable)
-            () -> player.onTickPotion(tickCount), PLAYER_MOVEMENT_CALLBACK, "potionQueue");
-        register((Runnable & Serializable)
-            () -> player.onTickSceptre(tickCount), AI_MOVEMENT_CALLBACK, "sceptreQueue");
+        restoreCallback(POTION_QUEUE);
+        restoreCallback(SCEPTRE_QUEUE);
         initialTreasureCount = map.getEntities(Treasure.class).size();
         initialSunStoneCount = map.getEntities(SunStone.class).size();
 
@@ -133,39 +135,71 @@ public class Game implements Serializable {
     }
 
     public void register(Runnable r, int priority, String id) {
-        if (isInTick)
-            addingSub.add(new ComparableCallback(r, priority, id));
-        else
-            sub.add(new ComparableCallback(r, priority, id));
+        scheduler.register(r, priority, id);
     }
 
     public void registerOnce(Runnable r, int priority, String id) {
-        if (isInTick)
-            addingSub.add(new ComparableCallback(r, priority, id, true));
-        else
-            sub.add(new ComparableCallback(r, priority, id, true));
+        scheduler.registerOnce(r, priority, id);
     }
 
     public void unsubscribe(String id) {
-        for (ComparableCallback c : sub) {
-            if (id.equals(c.getId())) {
-                c.invalidate();
-            }
-        }
-        for (ComparableCallback c : addingSub) {
-            if (id.equals(c.getId())) {
-                c.invalidate();
+        scheduler.unsubscribe(id);
+    }
+
+    public void registerEnemy(Enemy enemy) {
+        register((Runnable & Serializable) () -> enemy.move(this), AI_MOVEMENT, enemy.getId());
+    }
+
+    public void registerSpawner(ZombieToastSpawner spawner) {
+        register((Runnable & Serializable) () -> spawner.spawn(this), AI_MOVEMENT, spawner.getId());
+    }
+
+    public void registerSpiderSpawner() {
+        register((Runnable & Serializable) () -> entityFactory.spawnSpider(this), AI_MOVEMENT, SPIDER_SPAWNER);
+    }
+
+    /**
+     * Register the callback the scheduler knows by id again, working out what it
+     * does from the id alone: one of the game's own callbacks, or an enemy's
+     * move or a spawner's spawn for an entity id.
+     * @return false if nothing on the map goes by that id
+     */
+    public boolean restoreCallback(String id) {
+        switch (id) {
+        case POTION_QUEUE:
+            register((Runnable & Serializable)
+                () -> player.onTickPotion(tickCount), PLAYER_MOVEMENT_CALLBACK, POTION_QUEUE);
+            return true;
+        case SCEPTRE_QUEUE:
+            // mind control has to lapse before enemies move, or it lasts a tick longer than the sceptre's duration
+            register((Runnable & Serializable)
+                () -> player.onTickSceptre(tickCount), PLAYER_MOVEMENT_CALLBACK, SCEPTRE_QUEUE);
+            return true;
+        case SPIDER_SPAWNER:
+            registerSpiderSpawner();
+            return true;
+        default:
+            Entity entity = map.getEntity(id);
+            if (entity instanceof Enemy) {
+                registerEnemy((Enemy) entity);
+            } else if (entity instanceof ZombieToastSpawner) {
+                registerSpawner((ZombieToastSpawner) entity);
+            } else {
+                return false;
             }
+            return true;
         }
     }
 
+    /**
+     * The ids of the live repeating callbacks, in the order they run
+     */
+    public List<String> getCallbackIds() {
+        return scheduler.getIds();
+    }
+
     public int tick() {
-        isInTick = true;
-        sub.forEach(s -> s.run());
-        isInTick = false;
-        sub.addAll(addingSub);
-        addingSub = new PriorityQueue<>();
-        sub.removeIf(s -> !s.isValid());
+        scheduler.tick();
         tickCount++;
         // update the weapons/potions duration
         return tickCount;
@@ -175,6 +209,11 @@ public class Game implements Serializable {
         return this.tickCount;
     }
 
+    public void setTick(int tickCount) {
+        this.tickCount = tickCount;
+        invalidateGoals();
+    }
+
     public String getId() {
         return id;
     }
@@ -195,8 +234,28 @@ public class Game implements Serializable {
         return goals;
     }
 
+    /**
+     * The goals still to be met, or an empty string once they all are.
+     * Nothing goals depend on changes between ticks, so this is worked out at most once per tick.
+     */
+    public String getGoalString() {
+        if (goalString == null || goalTick != tickCount) {
+            goalString = (goals == null) ? "" : goals.toString(this);
+            goalTick = tickCount;
+        }
+        return goalString;
+    }
+
+    /**
+     * Forget the cached goal string, for when the game's state changes outside a tick
+     */
+    public void invalidateGoals() {
+        goalString = null;
+    }
+
     public void setGoals(Goal goals) {
         this.goals = goals;
+        invalidateGoals();
     }
 
     public GameMap getMap() {
@@ -247,6 +306,14 @@ public class Game implements Serializable {
         return initialSunStoneCount;
     }
 
+    public void setInitialTreasureCount(int initialTreasureCount) {
+        this.initialTreasureCount = initialTreasureCount;
+    }
+
+    public void setInitialSunStoneCount(int initialSunStoneCount) {
+        this.initialSunStoneCount = initialSunStoneCount;
+    }
+
     public void removePlayerInvItem(InventoryItem item) {
         player.remove(item);
     }
@@ -1,9 +1,8 @@
 package dungeonmania;
 
-import java.io.IOException;
-
 import org.json.JSONObject;
 
+import dungeonmania.battles.BattleFacade;
 import dungeonmania.entities.Entity;
 import dungeonmania.entities.EntityFactory;
 import dungeonmania.entities.Player;
@@ -12,7 +11,6 @@ import dungeonmania.goals.GoalFactory;
 import dungeonmania.map.GameMap;
 import dungeonmania.map.GraphNode;
 import dungeonmania.map.GraphNodeFactory;
-import dungeonmania.util.FileLoader;
 
 /**
  * GameBuilder -- A builder to build up the whole game
@@ -23,7 +21,7 @@ public class GameBuilder {
     private String configName;
     private String dungeonName;
 
-    private JSONObject config;
+    private GameConfig config;
     private JSONObject dungeon;
 
     public GameBuilder setConfigName(String configName) {
@@ -46,6 +44,7 @@ public class GameBuilder {
         Game game = new Game(dungeonName);
         EntityFactory factory = new EntityFactory(config);
         game.setEntityFactory(factory);
+        game.setBattleFacade(new BattleFacade(factory.getConfig().getBattleLogRetention()));
         buildMap(game);
         buildGoals(game);
         game.init();
@@ -53,23 +52,13 @@ public class GameBuilder {
         return game;
     }
 
+    // both come parsed from the catalog, which every game shares
     private void loadConfig() {
-        String configFile = String.format("/configs/%s.json", configName);
-        try {
-            config = new JSONObject(FileLoader.loadResourceFile(configFile));
-        } catch (IOException e) {
-            e.printStackTrace();
-            config = null;
-        }
+        config = ResourceCatalog.getConfig(configName);
     }
 
     private void loadDungeon() {
-        String dungeonFile = String.format("/dungeons/%s.json", dungeonName);
-        try {
-            dungeon = new JSONObject(FileLoader.loadResourceFile(dungeonFile));
-        } catch (IOException e) {
-            dungeon = null;
-        }
+        dungeon = ResourceCatalog.getDungeon(dungeonName);
     }
 
     private void buildMap(Game game) {
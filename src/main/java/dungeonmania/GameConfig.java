@@ -0,0 +1,281 @@
+package dungeonmania;
+
+import java.io.Serializable;
+
+import org.json.JSONObject;
+
+import dungeonmania.battles.BattleLog;
+import dungeonmania.entities.Player;
+import dungeonmania.entities.SwampTile;
+import dungeonmania.entities.buildables.MidnightArmour;
+import dungeonmania.entities.buildables.Sceptre;
+import dungeonmania.entities.collectables.Bomb;
+import dungeonmania.entities.collectables.Sword;
+import dungeonmania.entities.collectables.potions.InvincibilityPotion;
+import dungeonmania.entities.collectables.potions.InvisibilityPotion;
+import dungeonmania.entities.enemies.Assassin;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.entities.enemies.Spider;
+import dungeonmania.entities.enemies.ZombieToast;
+import dungeonmania.entities.enemies.ZombieToastSpawner;
+import dungeonmania.entities.inventory.RecipeBook;
+import dungeonmania.persistence.TickHistory;
+
+/**
+ * GameConfig -- the game's configuration, parsed once from its JSON file.
+ * Values are read with the same keys and defaults the factory has always
+ * used, so a missing key behaves exactly as before.
+ */
+public final class GameConfig implements Serializable {
+    private final double playerHealth;
+    private final double playerAttack;
+    private final double allyAttack;
+    private final double allyDefence;
+
+    private final double spiderHealth;
+    private final double spiderAttack;
+    private final int spiderSpawnInterval;
+
+    private final double zombieHealth;
+    private final double zombieAttack;
+    private final int zombieSpawnInterval;
+
+    private final double mercenaryHealth;
+    private final double mercenaryAttack;
+    private final int bribeAmount;
+    private final int mercenaryBribeRadius;
+
+    private final double assassinHealth;
+    private final double assassinAttack;
+    private final int assassinBribeAmount;
+    private final int assassinBribeRadius;
+    private final double assassinBribeFailRate;
+
+    private final int bowDurability;
+    private final int shieldDurability;
+    private final double shieldDefence;
+    private final double midnightArmourAttack;
+    private final double midnightArmourDefence;
+    private final int mindControlDuration;
+
+    private final int bombRadius;
+    private final int invisibilityPotionDuration;
+    private final int invincibilityPotionDuration;
+    private final double swordAttack;
+    private final int swordDurability;
+    private final int movementFactor;
+
+    private final int battleLogRetention;
+    private final int rewindDepth;
+
+    private final int treasureGoal;
+    private final int enemyGoal;
+
+    private final RecipeBook recipes;
+
+    private final String source;
+
+    public GameConfig(JSONObject config) {
+        source = config.toString();
+
+        playerHealth = config.optDouble("player_health", Player.DEFAULT_HEALTH);
+        playerAttack = config.optDouble("player_attack", Player.DEFAULT_ATTACK);
+        allyAttack = config.optDouble("ally_attack", Player.DEFAULT_ALLY_ATTACK);
+        allyDefence = config.optDouble("ally_defence", Player.DEFAULT_ALLY_DEFENCE);
+
+        spiderHealth = config.optDouble("spider_health", Spider.DEFAULT_HEALTH);
+        spiderAttack = config.optDouble("spider_attack", Spider.DEFAULT_ATTACK);
+        spiderSpawnInterval = config.optInt("spider_spawn_interval", Spider.DEFAULT_SPAWN_RATE);
+
+        zombieHealth = config.optDouble("zombie_health", ZombieToast.DEFAULT_HEALTH);
+        zombieAttack = config.optDouble("zombie_attack", ZombieToast.DEFAULT_ATTACK);
+        zombieSpawnInterval = config.optInt("zombie_spawn_interval", ZombieToastSpawner.DEFAULT_SPAWN_INTERVAL);
+
+        mercenaryHealth = config.optDouble("mercenary_health", Mercenary.DEFAULT_HEALTH);
+        mercenaryAttack = config.optDouble("mercenary_attack", Mercenary.DEFAULT_ATTACK);
+        bribeAmount = config.optInt("bribe_amount", Mercenary.DEFAULT_BRIBE_AMOUNT);
+        mercenaryBribeRadius = config.optInt("bribe_radius", Mercenary.DEFAULT_BRIBE_RADIUS);
+
+        // assassin health has always been read from the attack key
+        assassinHealth = config.optDouble("assassin_attack", Assassin.DEFAULT_HEALTH);
+        assassinAttack = config.optDouble("assassin_attack", Assassin.DEFAULT_ATTACK);
+        assassinBribeAmount = config.optInt("assassin_bribe_amount", Assassin.DEFAULT_BRIBE_AMOUNT);
+        assassinBribeRadius = config.optInt("bribe_radius", Assassin.DEFAULT_BRIBE_RADIUS);
+        assassinBribeFailRate = config.optDouble("assassin_bribe_fail_rate", Assassin.DEFAULT_FAIL_RATE);
+
+        bowDurability = config.optInt("bow_durability");
+        shieldDurability = config.optInt("shield_durability");
+        shieldDefence = config.optInt("shield_defence");
+        midnightArmourAttack = config.optDouble("midnight_armour_attack", MidnightArmour.DEFAULT_ATTACK);
+        midnightArmourDefence = config.optDouble("midnight_armour_defence", MidnightArmour.DEFAULT_DEFENCE);
+        mindControlDuration = config.optInt("mind_control_duration", Sceptre.DEFAULT_DURATION);
+
+        bombRadius = config.optInt("bomb_radius", Bomb.DEFAULT_RADIUS);
+        invisibilityPotionDuration = config.optInt("invisibility_potion_duration",
+            InvisibilityPotion.DEFAULT_DURATION);
+        invincibilityPotionDuration = config.optInt("invincibility_potion_duration",
+            InvincibilityPotion.DEFAULT_DURATION);
+        swordAttack = config.optDouble("sword_attack", Sword.DEFAULT_ATTACK);
+        swordDurability = config.optInt("sword_durability", Sword.DEFAULT_DURABILITY);
+        movementFactor = config.optInt("movement_factor", SwampTile.DEFAULT_MOVEMENT_FACTOR);
+
+        battleLogRetention = config.optInt("battle_log_retention", BattleLog.DEFAULT_RETENTION);
+        rewindDepth = config.optInt("rewind_depth", TickHistory.DEFAULT_DEPTH);
+
+        treasureGoal = config.optInt("treasure_goal", 1);
+        enemyGoal = config.optInt("enemy_goal", 1);
+
+        recipes = RecipeBook.fromConfig(config);
+    }
+
+    public double getPlayerHealth() {
+        return playerHealth;
+    }
+
+    public double getPlayerAttack() {
+        return playerAttack;
+    }
+
+    public double getAllyAttack() {
+        return allyAttack;
+    }
+
+    public double getAllyDefence() {
+        return allyDefence;
+    }
+
+    public double getSpiderHealth() {
+        return spiderHealth;
+    }
+
+    public double getSpiderAttack() {
+        return spiderAttack;
+    }
+
+    public int getSpiderSpawnInterval() {
+        return spiderSpawnInterval;
+    }
+
+    public double getZombieHealth() {
+        return zombieHealth;
+    }
+
+    public double getZombieAttack() {
+        return zombieAttack;
+    }
+
+    public int getZombieSpawnInterval() {
+        return zombieSpawnInterval;
+    }
+
+    public double getMercenaryHealth() {
+        return mercenaryHealth;
+    }
+
+    public double getMercenaryAttack() {
+        return mercenaryAttack;
+    }
+
+    public int getBribeAmount() {
+        return bribeAmount;
+    }
+
+    public int getMercenaryBribeRadius() {
+        return mercenaryBribeRadius;
+    }
+
+    public double getAssassinHealth() {
+        return assassinHealth;
+    }
+
+    public double getAssassinAttack() {
+        return assassinAttack;
+    }
+
+    public int getAssassinBribeAmount() {
+        return assassinBribeAmount;
+    }
+
+    public int getAssassinBribeRadius() {
+        return assassinBribeRadius;
+    }
+
+    public double getAssassinBribeFailRate() {
+        return assassinBribeFailRate;
+    }
+
+    public int getBowDurability() {
+        return bowDurability;
+    }
+
+    public int getShieldDurability() {
+        return shieldDurability;
+    }
+
+    public double getShieldDefence() {
+        return shieldDefence;
+    }
+
+    public double getMidnightArmourAttack() {
+        return midnightArmourAttack;
+    }
+
+    public double getMidnightArmourDefence() {
+        return midnightArmourDefence;
+    }
+
+    public int getMindControlDuration() {
+        return mindControlDuration;
+    }
+
+    public int getBombRadius() {
+        return bombRadius;
+    }
+
+    public int getInvisibilityPotionDuration() {
+        return invisibilityPotionDuration;
+    }
+
+    public int getInvincibilityPotionDuration() {
+        return invincibilityPotionDuration;
+    }
+
+    public double getSwordAttack() {
+        return swordAttack;
+    }
+
+    public int getSwordDurability() {
+        return swordDurability;
+    }
+
+    public int getMovementFactor() {
+        return movementFactor;
+    }
+
+    public int getBattleLogRetention() {
+        return battleLogRetention;
+    }
+
+    public int getRewindDepth() {
+        return rewindDepth;
+    }
+
+    public int getTreasureGoal() {
+        return treasureGoal;
+    }
+
+    public int getEnemyGoal() {
+        return enemyGoal;
+    }
+
+    public RecipeBook getRecipes() {
+        return recipes;
+    }
+
+    /**
+     * The JSON this config was read from, so a save can rebuild it exactly
+     */
+    public String getSource() {
+        return source;
+    }
+}
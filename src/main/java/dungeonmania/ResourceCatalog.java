@@ -0,0 +1,88 @@
+package dungeonmania;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.json.JSONObject;
+
+import dungeonmania.util.FileLoader;
+
+/**
+ * ResourceCatalog -- the dungeons and configs on the classpath, and their parsed contents.
+ * The classpath is scanned once, when the catalog is first used, and each file
+ * is parsed the first time a game needs it. Parsed files are shared by every
+ * game built from them: configs are immutable, and dungeons must only be read.
+ * Each dungeon and config pair played is also compiled into a template.
+ */
+public final class ResourceCatalog {
+    private static final List<String> DUNGEONS = scan("dungeons");
+    private static final List<String> CONFIGS = scan("configs");
+    private static final Set<String> DUNGEON_SET = new HashSet<>(DUNGEONS);
+    private static final Set<String> CONFIG_SET = new HashSet<>(CONFIGS);
+
+    private static final Map<String, JSONObject> DUNGEON_CACHE = new ConcurrentHashMap<>();
+    private static final Map<String, GameConfig> CONFIG_CACHE = new ConcurrentHashMap<>();
+    private static final Map<String, DungeonTemplate> TEMPLATE_CACHE = new ConcurrentHashMap<>();
+
+    private ResourceCatalog() {
+    }
+
+    private static List<String> scan(String directory) {
+        return Collections.unmodifiableList(FileLoader.listFileNamesInResourceDirectory(directory));
+    }
+
+    public static List<String> dungeons() {
+        return DUNGEONS;
+    }
+
+    public static List<String> configs() {
+        return CONFIGS;
+    }
+
+    public static boolean hasDungeon(String name) {
+        return DUNGEON_SET.contains(name);
+    }
+
+    public static boolean hasConfig(String name) {
+        return CONFIG_SET.contains(name);
+    }
+
+    /**
+     * @return the parsed dungeon file, or null if it can't be read. Don't modify it.
+     */
+    public static JSONObject getDungeon(String name) {
+        return DUNGEON_CACHE.computeIfAbsent(name, n -> parse(String.format("/dungeons/%s.json", n)));
+    }
+
+    /**
+     * @return the config, or null if its file can't be read
+     */
+    public static GameConfig getConfig(String name) {
+        return CONFIG_CACHE.computeIfAbsent(name, n -> {
+            JSONObject json = parse(String.format("/configs/%s.json", n));
+            return (json == null) ? null : new GameConfig(json);
+        });
+    }
+
+    /**
+     * @return the dungeon compiled against the config, compiling it the first time it's asked for
+     */
+    public static DungeonTemplate getTemplate(String dungeonName, String configName) {
+        return TEMPLATE_CACHE.computeIfAbsent(dungeonName + "\n" + configName,
+            k -> DungeonTemplate.compile(dungeonName, configName));
+    }
+
+    // a missing file isn't cached, so it is looked for again next time
+    private static JSONObject parse(String path) {
+        try {
+            return new JSONObject(FileLoader.loadResourceFile(path));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package dungeonmania;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * SessionRegistry -- a controller for every client session.
+ * Looking up a session that already exists takes no lock, and each session
+ * has its own queue: calls for one session run one at a time in the order
+ * they arrived, while calls for different sessions run in parallel.
+ * <p>
+ * Only so many games are kept in memory. Past that, the least recently used
+ * ones are written to the spill directory and let go of, as are games left
+ * idle for too long; the next call for their session reads them back first.
+ * Sessions not used at all for longer still are forgotten entirely.
+ */
+public class SessionRegistry {
+    private static final long SWEEP_INTERVAL_MILLIS = 1000;
+
+    private final ConcurrentMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Set<Session> live = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger spilled = new AtomicInteger();
+    private final AtomicLong spills = new AtomicLong();
+    private final AtomicLong faults = new AtomicLong();
+    private final AtomicLong failedFaults = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    private final int maxLiveGames;
+    private final long idleMillis;
+    private final long expiryMillis;
+    private final Path spillDirectory;
+    private final Clock clock;
+    private final ReentrantLock sweeping = new ReentrantLock();
+    private volatile long nextSweep;
+
+    /**
+     * A registry that keeps every game in memory and never forgets a session
+     */
+    public SessionRegistry() {
+        this(Integer.MAX_VALUE, null, null, Paths.get("build/sessions"), Clock.systemUTC());
+    }
+
+    /**
+     * @param maxLiveGames how many games to keep in memory
+     * @param idleTimeout how long a game can go unused before it is spilled, or null for no limit
+     * @param expiry how long a session can go unused before it is forgotten, or null for no limit
+     * @param spillDirectory where spilled games are written
+     */
+    public SessionRegistry(int maxLiveGames, Duration idleTimeout, Duration expiry, Path spillDirectory,
+            Clock clock) {
+        if (maxLiveGames < 0)
+            throw new IllegalArgumentException("The live game limit can't be negative");
+        this.maxLiveGames = maxLiveGames;
+        this.idleMillis = (idleTimeout == null) ? Long.MAX_VALUE : idleTimeout.toMillis();
+        this.expiryMillis = (expiry == null) ? Long.MAX_VALUE : expiry.toMillis();
+        this.spillDirectory = spillDirectory;
+        this.clock = clock;
+        this.nextSweep = (idleTimeout == null && expiry == null) ? Long.MAX_VALUE : clock.millis();
+    }
+
+    /**
+     * Run action against the session's controller, creating the session if it is
+     * new and reading its game back in if it was spilled
+     * @throws UncheckedIOException if a spilled game can't be read back. The game
+     * is lost and the session carries on with none, so a new game can be started.
+     */
+    public <T> T call(String sessionId, Function<DungeonManiaController, T> action) {
+        Session session = lock(sessionId);
+        try {
+            session.lastUsed = clock.millis();
+            if (session.spillFile != null) faultIn(session);
+            return action.apply(session.controller);
+        } finally {
+            if (session.controller.hasGame()) {
+                live.add(session);
+            } else {
+                live.remove(session);
+            }
+            session.queue.unlock();
+            if (live.size() > maxLiveGames || clock.millis() >= nextSweep) sweep();
+        }
+    }
+
+    // a session forgotten while we waited for it is replaced by a new one
+    private Session lock(String sessionId) {
+        while (true) {
+            Session session = sessions.get(sessionId);
+            if (session == null) session = sessions.computeIfAbsent(sessionId, Session::new);
+            session.queue.lock();
+            if (!session.removed) return session;
+            session.queue.unlock();
+        }
+    }
+
+    /**
+     * Spill games over the limit or left idle, and forget expired sessions.
+     * Calls do this themselves as needed; sessions that are in use are skipped.
+     */
+    public void sweep() {
+        // one sweep at a time is enough, so nobody waits for another
+        if (!sweeping.tryLock()) return;
+        try {
+            long now = clock.millis();
+            if (nextSweep != Long.MAX_VALUE) nextSweep = now + SWEEP_INTERVAL_MILLIS;
+            if (expiryMillis != Long.MAX_VALUE) {
+                for (Session session : sessions.values()) {
+                    if (now - session.lastUsed >= expiryMillis) expire(session);
+                }
+            }
+
+            // last used times are read once, since they can change while sorting
+            List<Map.Entry<Session, Long>> byAge = new ArrayList<>();
+            for (Session session : live) {
+                byAge.add(Map.entry(session, session.lastUsed));
+            }
+            byAge.sort(Map.Entry.comparingByValue());
+            // spilling a few extra means the next few new games don't each need a sweep
+            int excess = live.size() - maxLiveGames;
+            if (excess > 0) excess += maxLiveGames / 8;
+            for (Map.Entry<Session, Long> entry : byAge) {
+                boolean idle = now - entry.getValue() >= idleMillis;
+                if (excess <= 0 && !idle) break;
+                if (spill(entry.getKey())) excess--;
+            }
+        } finally {
+            sweeping.unlock();
+        }
+    }
+
+    private boolean spill(Session session) {
+        // a session someone is waiting on isn't idle
+        if (!session.queue.tryLock()) return false;
+        try {
+            if (session.removed || !session.controller.hasGame()) return false;
+            Files.createDirectories(spillDirectory);
+            Path file = Files.createTempFile(spillDirectory, "session", ".dmsv");
+            session.controller.spill(file);
+            session.spillFile = file;
+            live.remove(session);
+            spilled.incrementAndGet();
+            spills.incrementAndGet();
+            return true;
+        } catch (IOException e) {
+            // the game stays in memory
+            e.printStackTrace();
+            return false;
+        } finally {
+            session.queue.unlock();
+        }
+    }
+
+    private void faultIn(Session session) {
+        Path file = session.spillFile;
+        session.spillFile = null;
+        spilled.decrementAndGet();
+        try {
+            session.controller.unspill(file);
+        } catch (IOException e) {
+            lose(file);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            lose(file);
+            throw new UncheckedIOException(new IOException("Spilled game " + file + " couldn't be read", e));
+        }
+        faults.incrementAndGet();
+        deleteSpillFile(file);
+    }
+
+    // a spill file that can't be read never will be, so it goes rather than failing every later call
+    private void lose(Path file) {
+        failedFaults.incrementAndGet();
+        deleteSpillFile(file);
+    }
+
+    private static void deleteSpillFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void expire(Session session) {
+        if (!session.queue.tryLock()) return;
+        try {
+            session.removed = true;
+            sessions.remove(session.id, session);
+            live.remove(session);
+            if (session.spillFile != null) {
+                spilled.decrementAndGet();
+                Files.deleteIfExists(session.spillFile);
+            }
+            expired.incrementAndGet();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            session.queue.unlock();
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public Stats getStats() {
+        return new Stats(sessions.size(), live.size(), spilled.get(), spills.get(), faults.get(), failedFaults.get(),
+            expired.get());
+    }
+
+    /**
+     * Stats -- how many sessions there are and where their games are.
+     */
+    public static final class Stats {
+        private final int sessions;
+        private final int live;
+        private final int spilled;
+        private final long totalSpills;
+        private final long totalFaults;
+        private final long totalFailedFaults;
+        private final long totalExpired;
+
+        public Stats(int sessions, int live, int spilled, long totalSpills, long totalFaults, long totalFailedFaults,
+                long totalExpired) {
+            this.sessions = sessions;
+            this.live = live;
+            this.spilled = spilled;
+            this.totalSpills = totalSpills;
+            this.totalFaults = totalFaults;
+            this.totalFailedFaults = totalFailedFaults;
+            this.totalExpired = totalExpired;
+        }
+
+        public int getSessions() {
+            return sessions;
+        }
+
+        /**
+         * @return how many games are in memory
+         */
+        public int getLive() {
+            return live;
+        }
+
+        /**
+         * @return how many games are on disk waiting to be read back
+         */
+        public int getSpilled() {
+            return spilled;
+        }
+
+        public long getTotalSpills() {
+            return totalSpills;
+        }
+
+        public long getTotalFaults() {
+            return totalFaults;
+        }
+
+        /**
+         * @return how many spilled games couldn't be read back, and were lost
+         */
+        public long getTotalFailedFaults() {
+            return totalFailedFaults;
+        }
+
+        public long getTotalExpired() {
+            return totalExpired;
+        }
+    }
+
+    /**
+     * Session -- one client's controller and the queue its calls wait in.
+     * Everything but lastUsed is only touched while holding the queue.
+     */
+    private static final class Session {
+        // a fair lock hands itself to waiting calls first come, first served
+        private final ReentrantLock queue = new ReentrantLock(true);
+        private final DungeonManiaController controller = new DungeonManiaController();
+        private final String id;
+        private volatile long lastUsed;
+        private Path spillFile = null;
+        private boolean removed = false;
+
+        Session(String id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package dungeonmania;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TickScheduler -- runs the game's callbacks once per tick in priority order.
+ * Each priority level has its own list, run in registration order, so the
+ * order is deterministic without sorting. Callbacks registered during a tick
+ * are held back until it ends. Unsubscribing looks callbacks up by entity id
+ * and only marks them invalid; a level's list is compacted once enough of it
+ * is dead.
+ */
+public class TickScheduler implements Serializable {
+    private List<List<ComparableCallback>> buckets = new ArrayList<>();
+    private List<Integer> dead = new ArrayList<>();
+    private List<ComparableCallback> pending = new ArrayList<>();
+    private Map<String, List<ComparableCallback>> byId = new HashMap<>();
+    private boolean isInTick = false;
+
+    public void register(Runnable r, int priority, String id) {
+        add(new ComparableCallback(r, priority, id));
+    }
+
+    public void registerOnce(Runnable r, int priority, String id) {
+        add(new ComparableCallback(r, priority, id, true));
+    }
+
+    private void add(ComparableCallback callback) {
+        byId.computeIfAbsent(callback.getId(), k -> new ArrayList<>()).add(callback);
+        if (isInTick)
+            pending.add(callback);
+        else
+            bucket(callback.getV()).add(callback);
+    }
+
+    public void unsubscribe(String id) {
+        List<ComparableCallback> callbacks = byId.remove(id);
+        if (callbacks == null) return;
+        for (ComparableCallback c : callbacks) {
+            if (c.isValid()) {
+                c.invalidate();
+                markDead(c);
+            }
+        }
+    }
+
+    /**
+     * Run every live callback, lowest priority value first
+     */
+    public void tick() {
+        isInTick = true;
+        // callbacks registered mid-tick go to pending, so the lists don't grow while we walk them
+        for (List<ComparableCallback> bucket : buckets) {
+            for (int i = 0; i < bucket.size(); i++) {
+                ComparableCallback c = bucket.get(i);
+                if (!c.isValid()) continue;
+                c.run();
+                if (c.isOnce()) {
+                    markDead(c);
+                    forget(c);
+                }
+            }
+        }
+        isInTick = false;
+        for (ComparableCallback c : pending) {
+            if (c.isValid())
+                bucket(c.getV()).add(c);
+            else
+                unmarkDead(c);
+        }
+        pending.clear();
+        compact();
+    }
+
+    /**
+     * The ids of the live callbacks that run every tick, in the order they run
+     */
+    public List<String> getIds() {
+        List<String> ids = new ArrayList<>();
+        for (List<ComparableCallback> bucket : buckets) {
+            for (ComparableCallback c : bucket) {
+                if (c.isValid() && !c.isOnce()) ids.add(c.getId());
+            }
+        }
+        for (ComparableCallback c : pending) {
+            if (c.isValid() && !c.isOnce()) ids.add(c.getId());
+        }
+        return ids;
+    }
+
+    private List<ComparableCallback> bucket(int priority) {
+        while (buckets.size() <= priority) {
+            buckets.add(new ArrayList<>());
+            dead.add(0);
+        }
+        return buckets.get(priority);
+    }
+
+    private void markDead(ComparableCallback c) {
+        int priority = c.getV();
+        bucket(priority);
+        dead.set(priority, dead.get(priority) + 1);
+    }
+
+    private void unmarkDead(ComparableCallback c) {
+        int priority = c.getV();
+        dead.set(priority, dead.get(priority) - 1);
+    }
+
+    // callbacks compare equal by id, so remove this one by identity
+    private void forget(ComparableCallback c) {
+        List<ComparableCallback> callbacks = byId.get(c.getId());
+        if (callbacks == null) return;
+        for (int i = 0; i < callbacks.size(); i++) {
+            if (callbacks.get(i) == c) {
+                callbacks.remove(i);
+                break;
+            }
+        }
+        if (callbacks.isEmpty()) byId.remove(c.getId());
+    }
+
+    // drop invalid callbacks from any list that is at least half dead
+    private void compact() {
+        for (int p = 0; p < buckets.size(); p++) {
+            List<ComparableCallback> bucket = buckets.get(p);
+            if (dead.get(p) * 2 < bucket.size()) continue;
+            bucket.removeIf(c -> !c.isValid());
+            dead.set(p, 0);
+        }
+    }
+}
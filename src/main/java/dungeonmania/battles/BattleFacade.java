@@ -1,6 +1,7 @@
 package dungeonmania.battles;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.io.Serializable;
@@ -9,16 +10,23 @@ import dungeonmania.Game;
 import dungeonmania.entities.BattleItem;
 import dungeonmania.entities.Entity;
 import dungeonmania.entities.Player;
-import dungeonmania.entities.collectables.potions.Potion;
 import dungeonmania.entities.enemies.Enemy;
-import dungeonmania.entities.enemies.Mercenary;
 import dungeonmania.entities.inventory.InventoryItem;
 import dungeonmania.response.models.BattleResponse;
 import dungeonmania.response.models.ResponseBuilder;
+import dungeonmania.response.models.RoundResponse;
 import dungeonmania.util.NameConverter;
 
 public class BattleFacade implements Serializable {
-    private List<BattleResponse> battleResponses = new ArrayList<>();
+    private BattleLog battleLog;
+
+    public BattleFacade() {
+        this(BattleLog.DEFAULT_RETENTION);
+    }
+
+    public BattleFacade(int retention) {
+        this.battleLog = new BattleLog(retention);
+    }
 
     public void battle(Game game, Player player, Enemy enemy) {
         // 0. init
@@ -28,25 +36,9 @@ public class BattleFacade implements Serializable {
 
 
         // 1. apply buff provided by the game and player's inventory
-        // getting buffing amount
-        List<BattleItem> battleItems = new ArrayList<>();
-        BattleStatistics playerBuff = new BattleStatistics(0, 0, 0, 1, 1);
-
-        for (Mercenary m : game.getMapEntities(Mercenary.class)) {
-            if (m.isAllied()) {
-                playerBuff = player.applyAllyBuff(playerBuff);
-            }
-        }
-
-        Potion effectivePotion = player.getEffectivePotion();
-        if (effectivePotion != null) {
-            playerBuff = effectivePotion.applyBuff(playerBuff);
-        } else {
-            for (BattleItem item : player.getInventoryEntities(BattleItem.class)) {
-                playerBuff = item.applyBuff(playerBuff);
-                battleItems.add(item);
-            }
-        }
+        // the player keeps this up to date, so there is no need to rescan allies and items here
+        BattleStatistics playerBuff = player.getBattleBuff(game.getMap());
+        List<BattleItem> battleItems = player.getBuffItems(game.getMap());
 
         // 2. Battle the two stats
         BattleStatistics playerBaseStatistics = player.getBattleStatistics();
@@ -55,7 +47,7 @@ public class BattleFacade implements Serializable {
         BattleStatistics enemyBattleStatistics = enemyBaseStatistics;
         if (!playerBattleStatistics.isEnabled() || !enemyBaseStatistics.isEnabled())
             return;
-        List<BattleRound> rounds = BattleStatistics.battle(playerBattleStatistics, enemyBattleStatistics);
+        BattleOutcome outcome = BattleStatistics.resolve(playerBattleStatistics, enemyBattleStatistics);
 
         // 3. update health to the actual statistics
         player.setHealth(playerBattleStatistics.getHealth());
@@ -68,11 +60,13 @@ public class BattleFacade implements Serializable {
         }
 
         // 5. Log the battle - solidate it to be a battle response
-        battleResponses.add(new BattleResponse(
+        // every round is the same, so share one response rather than building one per round
+        List<RoundResponse> rounds = (outcome.getRoundCount() == 0)
+                ? new ArrayList<>()
+                : Collections.nCopies(outcome.getRoundCount(), ResponseBuilder.getRoundResponse(outcome.getRound()));
+        battleLog.add(new BattleResponse(
                 enemyString,
-                rounds.stream()
-                    .map(ResponseBuilder::getRoundResponse)
-                    .collect(Collectors.toList()),
+                rounds,
                 battleItems.stream()
                         .map(Entity.class::cast)
                         .map(ResponseBuilder::getItemResponse)
@@ -81,7 +75,14 @@ public class BattleFacade implements Serializable {
                 initialEnemyHealth));
     }
 
+    /**
+     * @return the battles still in the log's retention window, oldest first
+     */
     public List<BattleResponse> getBattleResponses() {
-        return battleResponses;
+        return battleLog.getRecent();
+    }
+
+    public BattleLog getBattleLog() {
+        return battleLog;
     }
 }
@@ -0,0 +1,125 @@
+package dungeonmania.battles;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.Gson;
+
+import dungeonmania.response.models.BattleResponse;
+
+/**
+ * BattleLog -- the most recent battles of a game, kept in a fixed-size ring.
+ * Every battle gets a sequence number; a client that remembers the cursor
+ * from its last fetch can ask for just the battles after it. Battles older
+ * than the retention window are dropped from memory, but can be appended to
+ * a file as one JSON object per line to keep the complete history.
+ */
+public class BattleLog implements Serializable {
+    public static final int DEFAULT_RETENTION = 100;
+
+    private static final Gson GSON = new Gson();
+
+    private final BattleResponse[] ring;
+    private long total = 0;
+    private String sinkPath = null;
+
+    public BattleLog() {
+        this(DEFAULT_RETENTION);
+    }
+
+    public BattleLog(int retention) {
+        if (retention < 1)
+            throw new IllegalArgumentException("Battle log retention must be at least 1");
+        this.ring = new BattleResponse[retention];
+    }
+
+    public void add(BattleResponse battle) {
+        ring[(int) (total % ring.length)] = battle;
+        total++;
+        if (sinkPath != null) append(battle);
+    }
+
+    /**
+     * The sequence number the next battle will get
+     */
+    public long getCursor() {
+        return total;
+    }
+
+    public int getRetention() {
+        return ring.length;
+    }
+
+    /**
+     * @return the retained battles, oldest first
+     */
+    public List<BattleResponse> getRecent() {
+        return getSince(0);
+    }
+
+    /**
+     * @return the retained battles numbered cursor or later, oldest first.
+     * Battles that have already fallen out of the window are skipped.
+     */
+    public List<BattleResponse> getSince(long cursor) {
+        long first = Math.max(Math.max(cursor, 0), total - ring.length);
+        List<BattleResponse> battles = new ArrayList<>();
+        for (long i = first; i < total; i++) {
+            battles.add(ring[(int) (i % ring.length)]);
+        }
+        return battles;
+    }
+
+    /**
+     * Replace the log's contents, for loading a save: battles are the most recent
+     * ones, oldest first, and cursor is the sequence number after the last of them.
+     * Restored battles are not appended to the sink. The sink is the saved game's,
+     * or null; its directory was made when it was first set.
+     */
+    public void restore(long cursor, List<BattleResponse> battles, String sinkPath) {
+        this.sinkPath = sinkPath;
+        Arrays.fill(ring, null);
+        total = Math.max(cursor - battles.size(), 0);
+        for (BattleResponse battle : battles) {
+            ring[(int) (total % ring.length)] = battle;
+            total++;
+        }
+    }
+
+    /**
+     * Append every battle from now on to the given file, or stop if path is null
+     */
+    public void setSink(String path) {
+        this.sinkPath = path;
+        if (path == null) return;
+        Path parent = Paths.get(path).toAbsolutePath().getParent();
+        try {
+            if (parent != null) Files.createDirectories(parent);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.toString());
+        }
+    }
+
+    public String getSink() {
+        return sinkPath;
+    }
+
+    private void append(BattleResponse battle) {
+        String line = GSON.toJson(battle) + System.lineSeparator();
+        try {
+            Files.write(Paths.get(sinkPath), line.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            // losing the file copy shouldn't stop the game; the ring still has the battle
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package dungeonmania.battles;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * BattleOutcome -- the result of resolving a battle.
+ * Every round of a battle deals the same damage, so the outcome only keeps
+ * the number of rounds and one round's damage; the per-round list is a
+ * read-only view that is never materialised.
+ */
+public class BattleOutcome implements Serializable {
+    private int roundCount;
+    private BattleRound round;
+
+    public BattleOutcome(int roundCount, BattleRound round) {
+        this.roundCount = roundCount;
+        this.round = round;
+    }
+
+    public int getRoundCount() {
+        return roundCount;
+    }
+
+    /**
+     * @return the damage dealt in each round, or null if no rounds were fought
+     */
+    public BattleRound getRound() {
+        return roundCount == 0 ? null : round;
+    }
+
+    public List<BattleRound> getRounds() {
+        return roundCount == 0 ? Collections.emptyList() : Collections.nCopies(roundCount, round);
+    }
+}
@@ -1,6 +1,5 @@
 package dungeonmania.battles;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.io.Serializable;
 
@@ -8,6 +7,8 @@ public class BattleStatistics implements Serializable {
     public static final double DEFAULT_DAMAGE_MAGNIFIER = 1.0;
     public static final double DEFAULT_PLAYER_DAMAGE_REDUCER = 10.0;
     public static final double DEFAULT_ENEMY_DAMAGE_REDUCER = 5.0;
+    // battles shorter than this are replayed near a round boundary to match round-by-round rounding
+    private static final long REPLAY_LIMIT = 1 << 20;
 
     private double health;
     private double attack;
@@ -50,27 +51,85 @@ public class BattleStatistics implements Serializable {
     }
 
     public static List<BattleRound> battle(BattleStatistics self, BattleStatistics target) {
-        List<BattleRound> rounds = new ArrayList<>();
+        return resolve(self, target).getRounds();
+    }
+
+    /**
+     * Fight until either side's health drops to zero or below, updating both healths.
+     * Each round deals the same damage, so the number of rounds is worked out
+     * arithmetically rather than by playing the rounds out. If neither side can
+     * take damage the battle ends after a single round.
+     */
+    public static BattleOutcome resolve(BattleStatistics self, BattleStatistics target) {
         if (self.invincible ^ target.invincible) {
             double damageOnSelf = (self.invincible) ? 0 : self.getHealth();
             double damageOnTarget = (target.invincible) ? 0 : target.getHealth();
             self.setHealth((self.invincible) ? self.getHealth() : 0);
             target.setHealth((target.invincible) ? target.getHealth() : 0);
-            rounds.add(new BattleRound(-damageOnSelf, -damageOnTarget));
-            return rounds;
+            return new BattleOutcome(1, new BattleRound(-damageOnSelf, -damageOnTarget));
         }
 
-        while (self.getHealth() > 0 && target.getHealth() > 0) {
-            double damageOnSelf = target.getMagnifier() * (target.getAttack() - self.getDefence()) / self.getReducer();
-            double damageOnTarget = self.getMagnifier() * (self.getAttack() - target.getDefence())
-                    / target.getReducer();
-            self.setHealth(self.getHealth() - damageOnSelf);
-            target.setHealth(target.getHealth() - damageOnTarget);
-            rounds.add(new BattleRound(-damageOnSelf, -damageOnTarget));
+        double damageOnSelf = target.getMagnifier() * (target.getAttack() - self.getDefence()) / self.getReducer();
+        double damageOnTarget = self.getMagnifier() * (self.getAttack() - target.getDefence())
+                / target.getReducer();
+        BattleRound round = new BattleRound(-damageOnSelf, -damageOnTarget);
+        if (self.getHealth() <= 0 || target.getHealth() <= 0)
+            return new BattleOutcome(0, round);
+
+        long rounds = Math.min(
+                roundsToDefeat(self.getHealth(), damageOnSelf),
+                roundsToDefeat(target.getHealth(), damageOnTarget));
+        if (rounds == Long.MAX_VALUE) rounds = 1;
+
+        self.setHealth(healthAfter(self.getHealth(), damageOnSelf, rounds));
+        target.setHealth(healthAfter(target.getHealth(), damageOnTarget, rounds));
+        return new BattleOutcome((int) rounds, round);
+    }
+
+    /**
+     * The number of rounds until health drops to zero or below when losing damage a
+     * round, capped at Integer.MAX_VALUE, or Long.MAX_VALUE if it never does.
+     * Repeatedly subtracting damage accumulates rounding error, so when the answer
+     * is within that error of a round boundary the rounds are replayed to land on
+     * the same side of zero.
+     */
+    private static long roundsToDefeat(double health, double damage) {
+        // a NaN hit ends the loop after one round, since NaN > 0 is false
+        if (Double.isNaN(damage)) return 1;
+        if (damage <= 0) return Long.MAX_VALUE;
+        double estimate = Math.max(1, Math.ceil(health / damage));
+        if (estimate >= Integer.MAX_VALUE) return Integer.MAX_VALUE;
+        long rounds = (long) estimate;
+        if (rounds <= REPLAY_LIMIT && (nearZero(health, damage, rounds) || nearZero(health, damage, rounds - 1))) {
+            double remaining = health;
+            rounds = 0;
+            while (remaining > 0) {
+                remaining -= damage;
+                rounds++;
+            }
+            return rounds;
         }
+        while (health - rounds * damage > 0) rounds++;
+        while (rounds > 1 && health - (rounds - 1) * damage <= 0) rounds--;
         return rounds;
     }
 
+    private static double healthAfter(double health, double damage, long rounds) {
+        if (rounds <= REPLAY_LIMIT && nearZero(health, damage, rounds)) {
+            for (long i = 0; i < rounds; i++) {
+                health -= damage;
+            }
+            return health;
+        }
+        return health - rounds * damage;
+    }
+
+    // whether health - rounds * damage is close enough to zero that accumulated rounding could change its sign
+    private static boolean nearZero(double health, double damage, long rounds) {
+        double slack = 4 * (rounds + 1) * Math.ulp(Math.abs(health) + Math.abs(damage));
+        return Math.abs(health - rounds * damage) <= slack;
+    }
+
     public static BattleStatistics applyBuff(BattleStatistics origin, BattleStatistics buff) {
         return new BattleStatistics(
                 origin.health + buff.health,
@@ -23,10 +23,6 @@ public class Boulder extends Entity {
     }
 
     private boolean canPush(GameMap map, Direction direction) {
-        Position newPosition = Position.translateBy(this.getPosition(), direction);
-        for (Entity e : map.getEntities(newPosition)) {
-            if (!e.canMoveOnto(map, this)) return false;
-        }
-        return true;
+        return map.canMoveTo(this, Position.translateBy(this.getPosition(), direction));
     }
 }
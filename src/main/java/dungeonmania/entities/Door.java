@@ -6,11 +6,16 @@ import dungeonmania.entities.collectables.Key;
 import dungeonmania.entities.collectables.SunStone;
 import dungeonmania.entities.enemies.Spider;
 import dungeonmania.entities.inventory.Inventory;
+import dungeonmania.persistence.SaveContext;
+import dungeonmania.persistence.SaveRecord;
+import dungeonmania.util.NameConverter;
 import dungeonmania.util.Position;
 
 public class Door extends Entity {
     private boolean open = false;
     private int number;
+    private transient String closedName = null;
+    private transient String openName = null;
 
     public Door(Position position, int number) {
         super(position.asLayer(Entity.DOOR_LAYER));
@@ -40,6 +45,7 @@ public class Door extends Entity {
             inventory.remove(key);
             open();
         }
+        map.notifyStateChanged(this);
     }
 
     private boolean hasSunStone(Player player) {
@@ -56,11 +62,34 @@ public class Door extends Entity {
         return (key != null && key.getNumber() == number);
     }
 
+    // "key" is the dungeon file's name for the door's number, so the door is rebuilt from it
+    @Override
+    public void writeState(SaveRecord record) {
+        super.writeState(record);
+        record.put("key", number).put("open", open);
+    }
+
+    @Override
+    public void readState(SaveRecord record, SaveContext context) {
+        super.readState(record, context);
+        open = record.getBoolean("open", false);
+    }
+
+    @Override
+    public String getTypeName() {
+        if (closedName == null) {
+            closedName = NameConverter.toSnakeCase(getClass());
+            openName = closedName + "_open";
+        }
+        return open ? openName : closedName;
+    }
+
     public boolean isOpen() {
         return open;
     }
 
     public void open() {
+        markChanged();
         open = true;
     }
 }
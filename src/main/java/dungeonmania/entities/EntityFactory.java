@@ -1,9 +1,11 @@
 package dungeonmania.entities;
 
 import dungeonmania.Game;
+import dungeonmania.GameConfig;
 import dungeonmania.entities.buildables.*;
 import dungeonmania.entities.collectables.*;
 import dungeonmania.entities.enemies.*;
+import dungeonmania.entities.inventory.InventoryItem;
 import dungeonmania.map.GameMap;
 import dungeonmania.entities.collectables.potions.InvincibilityPotion;
 import dungeonmania.entities.collectables.potions.InvisibilityPotion;
@@ -12,56 +14,100 @@ import dungeonmania.util.Position;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.io.Serializable;
 
 import org.json.JSONObject;
 
 public class EntityFactory implements Serializable {
-    private String configStr;
+    private static final int SPIDER_SPAWN_RADIUS = 20;
+    private static final int SPIDER_SPAWN_ATTEMPTS = 32;
+    // inventory items buildItem can make from the type alone; keys need a key number
+    private static final Set<String> BUILDABLE_ITEMS = Set.of("bow", "shield", "midnight_armour", "sceptre",
+        "treasure", "wood", "arrow", "bomb", "invisibility_potion", "invincibility_potion", "sword", "sun_stone");
+
+    private GameConfig config;
     private Random ranGen = new Random();
+    private transient Spider spiderProbe; // for checking possible positions
 
     public EntityFactory(JSONObject config) {
-        this.configStr = config.toString();
+        this(new GameConfig(config));
+    }
+
+    public EntityFactory(GameConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * A factory whose random choices, and so the whole game's, repeat for the same seed
+     */
+    public EntityFactory(GameConfig config, long seed) {
+        this.config = config;
+        this.ranGen = new Random(seed);
+    }
+
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * The game's one source of randomness: spawning, random movement and bribes all draw from it
+     */
+    public Random getRandom() {
+        return ranGen;
     }
 
     public Entity createEntity(JSONObject jsonEntity) {
-        JSONObject config = new JSONObject(configStr);
-        return constructEntity(jsonEntity, config);
+        return constructEntity(jsonEntity);
     }
 
     public void spawnSpider(Game game) {
-        JSONObject config = new JSONObject(configStr);
         GameMap map = game.getMap();
         int tick = game.getTick();
-        int rate = config.optInt("spider_spawn_interval", 0);
+        int rate = config.getSpiderSpawnInterval();
         if (rate == 0 || (tick + 1) % rate != 0) return;
-        int radius = 20;
-        Position player = map.getPlayerPosition();
 
-        Spider dummySpider = buildSpider(new Position(0, 0)); // for checking possible positions
+        Position initPosition = sampleSpiderSite(map, map.getPlayerPosition());
+        if (initPosition == null) return;
+        Spider spider = buildSpider(initPosition);
+        map.addEntity(spider);
+        game.registerEnemy(spider);
+    }
+
+    /**
+     * Pick a uniformly random cell a spider can move onto, within SPIDER_SPAWN_RADIUS
+     * steps of the centre. Cells are sampled from the surrounding box and rejected
+     * until one fits, which is near-constant time on an open map; if that keeps
+     * failing the valid cells are listed and one is chosen from them.
+     * @return the cell, or null if there is nowhere to spawn
+     */
+    private Position sampleSpiderSite(GameMap map, Position centre) {
+        if (spiderProbe == null) spiderProbe = buildSpider(Position.of(0, 0));
+        int radius = SPIDER_SPAWN_RADIUS;
+        for (int attempt = 0; attempt < SPIDER_SPAWN_ATTEMPTS; attempt++) {
+            int dx = ranGen.nextInt(2 * radius) - radius;
+            int dy = ranGen.nextInt(2 * radius) - radius;
+            if (Math.abs(dx) + Math.abs(dy) > radius) continue;
+            Position p = Position.of(centre.getX() + dx, centre.getY() + dy);
+            if (map.canMoveTo(spiderProbe, p)) return p;
+        }
 
         List<Position> availablePos = new ArrayList<>();
-        for (int i = player.getX() - radius; i < player.getX() + radius; i++) {
-            for (int j = player.getY() - radius; j < player.getY() + radius; j++) {
-                if (Position.calculatePositionBetween(player, new Position(i, j)).magnitude() > radius) continue;
-                Position np = new Position(i, j);
-                if (!map.canMoveTo(dummySpider, np)) continue;
-                availablePos.add(np);
+        for (int i = centre.getX() - radius; i < centre.getX() + radius; i++) {
+            for (int j = centre.getY() - radius; j < centre.getY() + radius; j++) {
+                if (Math.abs(i - centre.getX()) + Math.abs(j - centre.getY()) > radius) continue;
+                Position np = Position.of(i, j);
+                if (map.canMoveTo(spiderProbe, np)) availablePos.add(np);
             }
         }
-        Position initPosition = availablePos.get(ranGen.nextInt(availablePos.size()));
-        Spider spider = buildSpider(initPosition);
-        map.addEntity(spider);
-        game.register((Runnable & Serializable) () -> spider.move(game), Game.AI_MOVEMENT, spider.getId());
+        return availablePos.isEmpty() ? null : availablePos.get(ranGen.nextInt(availablePos.size()));
     }
 
     public void spawnZombie(Game game, ZombieToastSpawner spawner) {
-        JSONObject config = new JSONObject(configStr);
         GameMap map = game.getMap();
         int tick = game.getTick();
-        Random randGen = new Random();
-        int spawnInterval = config.optInt("zombie_spawn_interval", ZombieToastSpawner.DEFAULT_SPAWN_INTERVAL);
+        int spawnInterval = config.getZombieSpawnInterval();
         if (spawnInterval == 0 || (tick + 1) % spawnInterval != 0) return;
         List<Position> pos = spawner.getCardinallyAdjacentPositions();
         pos = pos
@@ -69,88 +115,86 @@ public class EntityFactory implements Serializable {
             .filter(p -> !map.getEntities(p).stream().anyMatch(e -> (e instanceof Wall)))
             .collect(Collectors.toList());
         if (pos.size() == 0) return;
-        ZombieToast zt = buildZombieToast(pos.get(randGen.nextInt(pos.size())));
+        ZombieToast zt = buildZombieToast(pos.get(ranGen.nextInt(pos.size())));
         map.addEntity(zt);
-        game.register((Runnable & Serializable) () -> zt.move(game), Game.AI_MOVEMENT, zt.getId());
+        game.registerEnemy(zt);
     }
 
     public Spider buildSpider(Position pos) {
-        JSONObject config = new JSONObject(configStr);
-        double spiderHealth = config.optDouble("spider_health", Spider.DEFAULT_HEALTH);
-        double spiderAttack = config.optDouble("spider_attack", Spider.DEFAULT_ATTACK);
-        return new Spider(pos, spiderHealth, spiderAttack);
+        return new Spider(pos, config.getSpiderHealth(), config.getSpiderAttack());
     }
 
     public Player buildPlayer(Position pos) {
-        JSONObject config = new JSONObject(configStr);
-        double playerHealth = config.optDouble("player_health", Player.DEFAULT_HEALTH);
-        double playerAttack = config.optDouble("player_attack", Player.DEFAULT_ATTACK);
-        double allyAttack = config.optDouble("ally_attack", Player.DEFAULT_ALLY_ATTACK);
-        double allyDefence = config.optDouble("ally_defence", Player.DEFAULT_ALLY_DEFENCE);
-        return new Player(pos, playerHealth, playerAttack, allyAttack, allyDefence);
+        return new Player(pos, config.getPlayerHealth(), config.getPlayerAttack(),
+            config.getAllyAttack(), config.getAllyDefence(), config.getRecipes());
     }
 
     public ZombieToast buildZombieToast(Position pos) {
-        JSONObject config = new JSONObject(configStr);
-        double zombieHealth = config.optDouble("zombie_health", ZombieToast.DEFAULT_HEALTH);
-        double zombieAttack = config.optDouble("zombie_attack", ZombieToast.DEFAULT_ATTACK);
-        return new ZombieToast(pos, zombieHealth, zombieAttack);
+        return new ZombieToast(pos, config.getZombieHealth(), config.getZombieAttack());
     }
 
     public ZombieToastSpawner buildZombieToastSpawner(Position pos) {
-        JSONObject config = new JSONObject(configStr);
-        int zombieSpawnRate = config.optInt("zombie_spawn_interval", ZombieToastSpawner.DEFAULT_SPAWN_INTERVAL);
-        return new ZombieToastSpawner(pos, zombieSpawnRate);
+        return new ZombieToastSpawner(pos, config.getZombieSpawnInterval());
     }
 
     public Mercenary buildMercenary(Position pos) {
-        JSONObject config = new JSONObject(configStr);
-        double mercenaryHealth = config.optDouble("mercenary_health", Mercenary.DEFAULT_HEALTH);
-        double mercenaryAttack = config.optDouble("mercenary_attack", Mercenary.DEFAULT_ATTACK);
-        int mercenaryBribeAmount = config.optInt("bribe_amount", Mercenary.DEFAULT_BRIBE_AMOUNT);
-        int mercenaryBribeRadius = config.optInt("bribe_radius", Mercenary.DEFAULT_BRIBE_RADIUS);
-        return new Mercenary(pos, mercenaryHealth, mercenaryAttack, mercenaryBribeAmount, mercenaryBribeRadius);
+        return new Mercenary(pos, config.getMercenaryHealth(), config.getMercenaryAttack(),
+            config.getBribeAmount(), config.getMercenaryBribeRadius());
     }
 
     public Assassin buildAssassin(Position pos) {
-        JSONObject config = new JSONObject(configStr);
-        double assassinHealth = config.optDouble("assassin_attack", Assassin.DEFAULT_HEALTH);
-        double assassinAttack = config.optDouble("assassin_attack", Assassin.DEFAULT_ATTACK);
-        int assassinBribeAmount = config.optInt("assassin_bribe_amount", Assassin.DEFAULT_BRIBE_AMOUNT);
-        int assassinBribeRadius = config.optInt("bribe_radius", Assassin.DEFAULT_BRIBE_RADIUS);
-        double assassinBribeFailRate = config.optDouble("assassin_bribe_fail_rate", Assassin.DEFAULT_FAIL_RATE);
-        return new Assassin(pos, assassinHealth, assassinAttack,
-        assassinBribeAmount, assassinBribeRadius, assassinBribeFailRate);
+        return new Assassin(pos, config.getAssassinHealth(), config.getAssassinAttack(),
+        config.getAssassinBribeAmount(), config.getAssassinBribeRadius(), config.getAssassinBribeFailRate(),
+        ranGen.nextLong());
     }
 
     public Bow buildBow() {
-        JSONObject config = new JSONObject(configStr);
-        int bowDurability = config.optInt("bow_durability");
-        return new Bow(bowDurability);
+        return new Bow(config.getBowDurability());
     }
 
     public Shield buildShield() {
-        JSONObject config = new JSONObject(configStr);
-        int shieldDurability = config.optInt("shield_durability");
-        double shieldDefence = config.optInt("shield_defence");
-        return new Shield(shieldDurability, shieldDefence);
+        return new Shield(config.getShieldDurability(), config.getShieldDefence());
     }
 
     public MidnightArmour buildMidnightArmour() {
-        JSONObject config = new JSONObject(configStr);
-        double armourAttack = config.optDouble("midnight_armour_attack", MidnightArmour.DEFAULT_ATTACK);
-        double armourDefence = config.optDouble("midnight_armour_defence", MidnightArmour.DEFAULT_DEFENCE);
-        return new MidnightArmour(armourAttack, armourDefence);
+        return new MidnightArmour(config.getMidnightArmourAttack(), config.getMidnightArmourDefence());
     }
 
     public Sceptre buildSceptre() {
-        JSONObject config = new JSONObject(configStr);
-        int mindControlDuration = config.optInt("mind_control_duration", Sceptre.DEFAULT_DURATION);
-        return new Sceptre(mindControlDuration);
+        return new Sceptre(config.getMindControlDuration());
+    }
+
+    /**
+     * Whether buildItem can make the given type
+     */
+    public static boolean canBuildItem(String type) {
+        return BUILDABLE_ITEMS.contains(type);
+    }
+
+    /**
+     * Build the item a recipe makes. Items other than the built-in buildables are
+     * made as if collected from the dungeon, so they can't need extra fields such as a key number.
+     * @return the item, or null if it isn't one canBuildItem allows
+     */
+    public InventoryItem buildItem(String type) {
+        if (!canBuildItem(type)) return null;
+        switch (type) {
+        case "bow":
+            return buildBow();
+        case "shield":
+            return buildShield();
+        case "midnight_armour":
+            return buildMidnightArmour();
+        case "sceptre":
+            return buildSceptre();
+        default:
+            Entity entity = constructEntity(new JSONObject().put("type", type).put("x", 0).put("y", 0));
+            return (entity instanceof InventoryItem) ? (InventoryItem) entity : null;
+        }
     }
 
-    private Entity constructEntity(JSONObject jsonEntity, JSONObject config) {
-        Position pos = new Position(jsonEntity.getInt("x"), jsonEntity.getInt("y"));
+    private Entity constructEntity(JSONObject jsonEntity) {
+        Position pos = Position.of(jsonEntity.getInt("x"), jsonEntity.getInt("y"));
 
         switch (jsonEntity.getString("type")) {
         case "player":
@@ -178,23 +222,15 @@ public class EntityFactory implements Serializable {
         case "arrow":
             return new Arrow(pos);
         case "bomb":
-            int bombRadius = config.optInt("bomb_radius", Bomb.DEFAULT_RADIUS);
-            return new Bomb(pos, bombRadius);
+            return new Bomb(pos, config.getBombRadius());
         case "invisibility_potion":
-            int invisibilityPotionDuration = config.optInt(
-                "invisibility_potion_duration",
-                InvisibilityPotion.DEFAULT_DURATION);
-            return new InvisibilityPotion(pos, invisibilityPotionDuration);
+            return new InvisibilityPotion(pos, config.getInvisibilityPotionDuration());
         case "invincibility_potion":
-            int invincibilityPotionDuration = config.optInt("invincibility_potion_duration",
-            InvincibilityPotion.DEFAULT_DURATION);
-            return new InvincibilityPotion(pos, invincibilityPotionDuration);
+            return new InvincibilityPotion(pos, config.getInvincibilityPotionDuration());
         case "portal":
             return new Portal(pos, ColorCodedType.valueOf(jsonEntity.getString("colour")));
         case "sword":
-            double swordAttack = config.optDouble("sword_attack", Sword.DEFAULT_ATTACK);
-            int swordDurability = config.optInt("sword_durability", Sword.DEFAULT_DURABILITY);
-            return new Sword(pos, swordAttack, swordDurability);
+            return new Sword(pos, config.getSwordAttack(), config.getSwordDurability());
         case "spider":
             return buildSpider(pos);
         case "door":
@@ -204,15 +240,13 @@ public class EntityFactory implements Serializable {
         case "sun_stone":
             return new SunStone(pos);
         case "swamp_tile":
-            int movementFactor = config.optInt("movement_factor", SwampTile.DEFAULT_MOVEMENT_FACTOR);
-            return new SwampTile(pos, movementFactor);
+            return new SwampTile(pos, config.getMovementFactor());
         default:
             return null;
         }
     }
 
     public int getSwampMF() {
-        JSONObject config = new JSONObject(configStr);
-        return config.optInt("movement_factor", SwampTile.DEFAULT_MOVEMENT_FACTOR);
+        return config.getMovementFactor();
     }
 }
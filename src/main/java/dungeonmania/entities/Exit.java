@@ -12,4 +12,9 @@ public class Exit extends Entity {
     public boolean canMoveOnto(GameMap map, Entity entity) {
         return true;
     }
+
+    @Override
+    public boolean affectsPathing() {
+        return false;
+    }
 }
@@ -1,5 +1,7 @@
 package dungeonmania.entities;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
@@ -14,7 +16,10 @@ import dungeonmania.entities.enemies.Enemy;
 import dungeonmania.entities.enemies.Mercenary;
 import dungeonmania.entities.inventory.Inventory;
 import dungeonmania.entities.inventory.InventoryItem;
+import dungeonmania.entities.inventory.RecipeBook;
 import dungeonmania.map.GameMap;
+import dungeonmania.persistence.SaveContext;
+import dungeonmania.persistence.SaveRecord;
 import dungeonmania.util.Direction;
 import dungeonmania.util.Position;
 
@@ -35,7 +40,17 @@ public class Player extends Entity implements Battleable {
     private double allyAttack;
     private double allyDefence;
 
+    // the combined battle buff, rebuilt only after the inventory, potion or allies change
+    private transient BattleStatistics buff = null;
+    private transient List<BattleItem> buffItems = null;
+    private transient int buffVersion;
+
     public Player(Position position, double health, double attack, double allyAttack, double allyDefence) {
+        this(position, health, attack, allyAttack, allyDefence, RecipeBook.defaults());
+    }
+
+    public Player(Position position, double health, double attack, double allyAttack, double allyDefence,
+            RecipeBook recipes) {
         super(position);
         battleStatistics = new BattleStatistics(
                 health,
@@ -43,7 +58,7 @@ public class Player extends Entity implements Battleable {
                 0,
                 BattleStatistics.DEFAULT_DAMAGE_MAGNIFIER,
                 BattleStatistics.DEFAULT_PLAYER_DAMAGE_REDUCER);
-        inventory = new Inventory();
+        inventory = new Inventory(recipes);
         this.allyAttack = allyAttack;
         this.allyDefence = allyDefence;
     }
@@ -90,6 +105,17 @@ public class Player extends Entity implements Battleable {
         return true;
     }
 
+    @Override
+    public boolean affectsPathing() {
+        return false;
+    }
+
+    // health, inventory and potions change nearly every tick
+    @Override
+    public boolean tracksChanges() {
+        return false;
+    }
+
     public Entity getEntity(String itemUsedId) {
         return inventory.getEntity(itemUsedId);
     }
@@ -118,10 +144,12 @@ public class Player extends Entity implements Battleable {
 
     public void triggerNextPotion(int currentTick) {
         if (potionQueue.isEmpty()) {
+            if (inEffective != null) invalidateBuff();
             inEffective = null;
             return;
         }
         inEffective = potionQueue.remove();
+        invalidateBuff();
         nextTriggerPotion = currentTick + inEffective.getDuration();
     }
 
@@ -148,6 +176,7 @@ public class Player extends Entity implements Battleable {
         sceptreQueue.add(mercenary);
         if (controlledUnit == null) {
             mercenary.setAlly();
+            invalidateBuff();
             triggerNextSceptre(tick);
         }
     }
@@ -162,6 +191,7 @@ public class Player extends Entity implements Battleable {
         if (controlledUnit == null || tick == nextTriggerSceptre) {
             if (controlledUnit != null) {
                 controlledUnit.setHostile();
+                invalidateBuff();
             }
             triggerNextSceptre(tick);
         }
@@ -200,6 +230,54 @@ public class Player extends Entity implements Battleable {
         return enemiesDestroyed;
     }
 
+    /**
+     * The buff the player fights with: one ally buff per allied mercenary, then
+     * either the active potion or every battle item in the inventory.
+     */
+    public BattleStatistics getBattleBuff(GameMap map) {
+        if (buff == null || buffVersion != inventory.getVersion()) rebuildBuff(map);
+        return buff;
+    }
+
+    /**
+     * The inventory items that contributed to the battle buff, in inventory order
+     */
+    public List<BattleItem> getBuffItems(GameMap map) {
+        if (buff == null || buffVersion != inventory.getVersion()) rebuildBuff(map);
+        return buffItems;
+    }
+
+    /**
+     * Drop the cached battle buff, for changes the inventory doesn't see such as
+     * a mercenary joining or leaving the player
+     */
+    public void invalidateBuff() {
+        buff = null;
+        buffItems = null;
+    }
+
+    private void rebuildBuff(GameMap map) {
+        BattleStatistics playerBuff = new BattleStatistics(0, 0, 0, 1, 1);
+        for (Mercenary m : map.getEntities(Mercenary.class)) {
+            if (m.isAllied()) {
+                playerBuff = applyAllyBuff(playerBuff);
+            }
+        }
+
+        List<BattleItem> items = new ArrayList<>();
+        if (inEffective != null) {
+            playerBuff = inEffective.applyBuff(playerBuff);
+        } else {
+            for (BattleItem item : getInventoryEntities(BattleItem.class)) {
+                playerBuff = item.applyBuff(playerBuff);
+                items.add(item);
+            }
+        }
+        buff = playerBuff;
+        buffItems = Collections.unmodifiableList(items);
+        buffVersion = inventory.getVersion();
+    }
+
     public BattleStatistics applyAllyBuff(BattleStatistics origin) {
         return BattleStatistics.applyBuff(origin, new BattleStatistics(
             0,
@@ -209,6 +287,50 @@ public class Player extends Entity implements Battleable {
             1));
     }
 
+    @Override
+    public void writeState(SaveRecord record) {
+        super.writeState(record);
+        List<String> sceptreIds = new ArrayList<>();
+        for (Mercenary m : sceptreQueue) {
+            sceptreIds.add(m.getId());
+        }
+        record.put("health", getHealth())
+            .put("enemies_destroyed", enemiesDestroyed)
+            .put("next_trigger_potion", nextTriggerPotion)
+            .put("next_trigger_sceptre", nextTriggerSceptre)
+            .putRecords("inventory", SaveRecord.of(inventory.getEntities()))
+            .putRecords("potion_queue", SaveRecord.of(potionQueue))
+            .put("active_potion", (inEffective == null) ? null : SaveRecord.of(inEffective))
+            .putStrings("sceptre_queue", sceptreIds)
+            .put("controlled_unit", (controlledUnit == null) ? null : controlledUnit.getId());
+    }
+
+    @Override
+    public void readState(SaveRecord record, SaveContext context) {
+        super.readState(record, context);
+        setHealth(record.getDouble("health", getHealth()));
+        enemiesDestroyed = record.getInt("enemies_destroyed", 0);
+        nextTriggerPotion = record.getInt("next_trigger_potion", 0);
+        nextTriggerSceptre = record.getInt("next_trigger_sceptre", 0);
+        for (SaveRecord item : record.getRecords("inventory")) {
+            Entity entity = context.create(item);
+            if (entity instanceof InventoryItem) inventory.add((InventoryItem) entity);
+        }
+        for (SaveRecord potion : record.getRecords("potion_queue")) {
+            Entity entity = context.create(potion);
+            if (entity instanceof Potion) potionQueue.add((Potion) entity);
+        }
+        SaveRecord active = record.getRecord("active_potion");
+        Entity activePotion = (active == null) ? null : context.create(active);
+        inEffective = (activePotion instanceof Potion) ? (Potion) activePotion : null;
+        for (String id : record.getStrings("sceptre_queue")) {
+            Mercenary m = context.resolve(id, Mercenary.class);
+            if (m != null) sceptreQueue.add(m);
+        }
+        controlledUnit = context.resolve(record.getString("controlled_unit", null), Mercenary.class);
+        invalidateBuff();
+    }
+
     public boolean hasSceptre() {
         return countEntityOfType(Sceptre.class) >= 1;
     }
@@ -5,11 +5,15 @@ import java.util.stream.Collectors;
 
 import dungeonmania.entities.enemies.Mercenary;
 import dungeonmania.map.GameMap;
+import dungeonmania.persistence.SaveContext;
+import dungeonmania.persistence.SaveRecord;
+import dungeonmania.util.NameConverter;
 import dungeonmania.util.Position;
 
 public class Portal extends Entity {
     private ColorCodedType color;
     private Portal pair;
+    private transient String typeName = null;
 
     public Portal(Position position, ColorCodedType color) {
         super(position);
@@ -26,8 +30,10 @@ public class Portal extends Entity {
     }
 
     public boolean canTeleportTo(GameMap map, Entity entity) {
-        List<Position> neighbours = getCardinallyAdjacentPositions();
-        return neighbours.stream().anyMatch(n -> map.canMoveTo(entity, n));
+        for (Position n : getCardinallyAdjacentPositions()) {
+            if (map.canMoveTo(entity, n)) return true;
+        }
+        return false;
     }
 
     @Override
@@ -39,24 +45,50 @@ public class Portal extends Entity {
     }
 
     private void doTeleport(GameMap map, Entity entity) {
-        Position destination = pair.getPosition()
-                .getCardinallyAdjacentPositions()
-                .stream()
-                .filter(dest -> map.canMoveTo(entity, dest))
-                .findAny()
-                .orElse(null);
+        Position destination = null;
+        for (Position dest : pair.getPosition().getCardinallyAdjacentPositions()) {
+            if (map.canMoveTo(entity, dest)) {
+                destination = dest;
+                break;
+            }
+        }
         if (destination != null) {
             if (entity instanceof Player) {
+                // step the player back off the portal so it isn't left behind in this node
+                map.removeNode(entity);
                 entity.setPosition(entity.getPreviousPosition());
             }
             map.moveTo(entity, destination);
         }
     }
 
+    public Position getPairPosition() {
+        return pair == null ? null : pair.getPosition();
+    }
+
     public String getColor() {
         return color.toString();
     }
 
+    @Override
+    public String getTypeName() {
+        if (typeName == null)
+            typeName = NameConverter.toSnakeCase(getClass()) + "_" + getColor().toLowerCase();
+        return typeName;
+    }
+
+    @Override
+    public void writeState(SaveRecord record) {
+        super.writeState(record);
+        record.put("colour", color.toString()).put("pair", (pair == null) ? null : pair.getId());
+    }
+
+    @Override
+    public void readState(SaveRecord record, SaveContext context) {
+        super.readState(record, context);
+        bind(context.resolve(record.getString("pair", null), Portal.class));
+    }
+
     public List<Position> getDestPositions(GameMap map, Entity entity) {
         return pair == null
                 ? null
@@ -71,6 +103,7 @@ public class Portal extends Entity {
         if (this.pair != null) {
             this.pair.bind(null);
         }
+        markChanged();
         this.pair = portal;
         if (portal != null) {
             portal.bind(this);
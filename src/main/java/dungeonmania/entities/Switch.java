@@ -5,6 +5,8 @@ import java.util.List;
 
 import dungeonmania.entities.collectables.Bomb;
 import dungeonmania.map.GameMap;
+import dungeonmania.persistence.SaveContext;
+import dungeonmania.persistence.SaveRecord;
 import dungeonmania.util.Position;
 
 public class Switch extends Entity {
@@ -15,11 +17,34 @@ public class Switch extends Entity {
         super(position.asLayer(Entity.ITEM_LAYER));
     }
 
+    @Override
+    public void writeState(SaveRecord record) {
+        super.writeState(record);
+        List<String> bombIds = new ArrayList<>();
+        for (Bomb b : bombs) {
+            bombIds.add(b.getId());
+        }
+        record.put("activated", activated).putStrings("bombs", bombIds);
+    }
+
+    // read before the switch is put on a map, so the map counts it as active if it is
+    @Override
+    public void readState(SaveRecord record, SaveContext context) {
+        super.readState(record, context);
+        activated = record.getBoolean("activated", false);
+        for (String id : record.getStrings("bombs")) {
+            Bomb b = context.resolve(id, Bomb.class);
+            if (b != null) bombs.add(b);
+        }
+    }
+
     public void subscribe(Bomb b) {
+        markChanged();
         bombs.add(b);
     }
 
     public void subscribe(Bomb bomb, GameMap map) {
+        markChanged();
         bombs.add(bomb);
         if (activated) {
             bombs.stream().forEach(b -> b.notify(map));
@@ -27,6 +52,7 @@ public class Switch extends Entity {
     }
 
     public void unsubscribe(Bomb b) {
+        markChanged();
         bombs.remove(b);
     }
 
@@ -35,10 +61,15 @@ public class Switch extends Entity {
         return true;
     }
 
+    @Override
+    public boolean affectsPathing() {
+        return false;
+    }
+
     @Override
     public void onOverlap(GameMap map, Entity entity) {
         if (entity instanceof Boulder) {
-            activated = true;
+            setActivated(map, true);
             bombs.stream().forEach(b -> b.notify(map));
         }
     }
@@ -46,10 +77,17 @@ public class Switch extends Entity {
     @Override
     public void onMovedAway(GameMap map, Entity entity) {
         if (entity instanceof Boulder) {
-            activated = false;
+            setActivated(map, false);
         }
     }
 
+    private void setActivated(GameMap map, boolean activated) {
+        if (this.activated == activated) return;
+        markChanged();
+        this.activated = activated;
+        map.onSwitchChanged(this);
+    }
+
     public boolean isActivated() {
         return activated;
     }
@@ -4,6 +4,8 @@ import dungeonmania.Game;
 import dungeonmania.entities.BattleItem;
 import dungeonmania.entities.Entity;
 import dungeonmania.entities.inventory.InventoryItem;
+import dungeonmania.persistence.SaveContext;
+import dungeonmania.persistence.SaveRecord;
 import dungeonmania.util.Position;
 
 public abstract class Buildable extends Entity implements InventoryItem, BattleItem {
@@ -19,7 +21,20 @@ public abstract class Buildable extends Entity implements InventoryItem, BattleI
         this.durability = durability;
     }
 
+    @Override
+    public void writeState(SaveRecord record) {
+        super.writeState(record);
+        record.put("durability", durability);
+    }
+
+    @Override
+    public void readState(SaveRecord record, SaveContext context) {
+        super.readState(record, context);
+        durability = record.getInt("durability", durability);
+    }
+
     public void use(Game game) {
+        markChanged();
         durability--;
         if (durability <= 0) {
             game.removePlayerInvItem(this);
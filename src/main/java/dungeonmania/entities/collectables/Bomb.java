@@ -10,6 +10,8 @@ import dungeonmania.entities.Entity;
 import dungeonmania.entities.Player;
 import dungeonmania.entities.Switch;
 import dungeonmania.map.GameMap;
+import dungeonmania.persistence.SaveContext;
+import dungeonmania.persistence.SaveRecord;
 
 public class Bomb extends Collectable {
     private boolean spawned = true;
@@ -24,7 +26,28 @@ public class Bomb extends Collectable {
         this.radius = radius;
     }
 
+    @Override
+    public void writeState(SaveRecord record) {
+        super.writeState(record);
+        List<String> switchIds = new ArrayList<>();
+        for (Switch s : subs) {
+            switchIds.add(s.getId());
+        }
+        record.put("spawned", spawned).putStrings("switches", switchIds);
+    }
+
+    @Override
+    public void readState(SaveRecord record, SaveContext context) {
+        super.readState(record, context);
+        spawned = record.getBoolean("spawned", true);
+        for (String id : record.getStrings("switches")) {
+            Switch s = context.resolve(id, Switch.class);
+            if (s != null) subs.add(s);
+        }
+    }
+
     public void subscribe(Switch s) {
+        markChanged();
         this.subs.add(s);
     }
 
@@ -45,6 +68,7 @@ public class Bomb extends Collectable {
     public void onPutDown(GameMap map, Position p) {
         translate(Position.calculatePositionBetween(getPosition(), p));
         map.addEntity(this);
+        markChanged();
         this.spawned = false;
         List<Position> adjPosList = getCardinallyAdjacentPositions();
         adjPosList.stream().forEach(node -> {
@@ -70,7 +94,7 @@ public class Bomb extends Collectable {
         int y = getPosition().getY();
         for (int i = x - radius; i <= x + radius; i++) {
             for (int j = y - radius; j <= y + radius; j++) {
-                List<Entity> entities = map.getEntities(new Position(i, j));
+                List<Entity> entities = map.getEntities(Position.of(i, j));
                 entities = entities.stream()
                     .filter(e -> !(e instanceof Player))
                     .collect(Collectors.toList());
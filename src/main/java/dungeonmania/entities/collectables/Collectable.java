@@ -16,6 +16,11 @@ public abstract class Collectable extends Entity implements InventoryItem {
         return true;
     }
 
+    @Override
+    public boolean affectsPathing() {
+        return false;
+    }
+
     @Override
     public void onOverlap(GameMap map, Entity entity) {
         if (entity instanceof Player) {
@@ -3,6 +3,7 @@ package dungeonmania.entities.collectables;
 import dungeonmania.entities.Entity;
 import dungeonmania.entities.Player;
 import dungeonmania.map.GameMap;
+import dungeonmania.persistence.SaveRecord;
 import dungeonmania.util.Position;
 
 public class Key extends Collectable {
@@ -13,6 +14,12 @@ public class Key extends Collectable {
         this.number = number;
     }
 
+    @Override
+    public void writeState(SaveRecord record) {
+        super.writeState(record);
+        record.put("key", number);
+    }
+
     public int getNumber() {
         return number;
     }
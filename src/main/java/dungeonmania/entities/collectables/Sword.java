@@ -3,6 +3,8 @@ package dungeonmania.entities.collectables;
 import dungeonmania.Game;
 import dungeonmania.battles.BattleStatistics;
 import dungeonmania.entities.BattleItem;
+import dungeonmania.persistence.SaveContext;
+import dungeonmania.persistence.SaveRecord;
 import dungeonmania.util.Position;
 
 public class Sword extends Collectable implements BattleItem {
@@ -21,8 +23,21 @@ public class Sword extends Collectable implements BattleItem {
         this.durability = durability;
     }
 
+    @Override
+    public void writeState(SaveRecord record) {
+        super.writeState(record);
+        record.put("durability", durability);
+    }
+
+    @Override
+    public void readState(SaveRecord record, SaveContext context) {
+        super.readState(record, context);
+        durability = record.getInt("durability", durability);
+    }
+
     @Override
     public void use(Game game) {
+        markChanged();
         durability--;
         if (durability <= 0) {
             game.getPlayer().remove(this);
@@ -33,6 +33,7 @@ public class Assassin extends Mercenary {
         bribe(player);
         if (random.nextDouble() > bribeFailRate) {
             setAlly();
+            player.invalidateBuff();
         }
     }
 }
@@ -2,7 +2,6 @@ package dungeonmania.entities.enemies;
 
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
 
 import dungeonmania.Game;
 import dungeonmania.battles.BattleStatistics;
@@ -10,6 +9,8 @@ import dungeonmania.battles.Battleable;
 import dungeonmania.entities.Entity;
 import dungeonmania.entities.Player;
 import dungeonmania.map.GameMap;
+import dungeonmania.persistence.SaveContext;
+import dungeonmania.persistence.SaveRecord;
 import dungeonmania.util.Position;
 
 public abstract class Enemy extends Entity implements Battleable {
@@ -31,6 +32,11 @@ public abstract class Enemy extends Entity implements Battleable {
         return entity instanceof Player || entity instanceof Enemy;
     }
 
+    @Override
+    public boolean affectsPathing() {
+        return false;
+    }
+
     @Override
     public BattleStatistics getBattleStatistics() {
         return battleStatistics;
@@ -42,6 +48,7 @@ public abstract class Enemy extends Entity implements Battleable {
 
     public void setHealth(double health) {
         battleStatistics.setHealth(health);
+        markChanged();
     }
 
     @Override
@@ -59,27 +66,52 @@ public abstract class Enemy extends Entity implements Battleable {
         map.getPlayer().incEnemiesDestroyed();
     }
 
+    @Override
+    public void writeState(SaveRecord record) {
+        super.writeState(record);
+        record.put("health", getHealth()).put("swamp_debuff", swampDebuff);
+    }
+
+    @Override
+    public void readState(SaveRecord record, SaveContext context) {
+        super.readState(record, context);
+        setHealth(record.getDouble("health", getHealth()));
+        swampDebuff = record.getInt("swamp_debuff", 0);
+    }
+
     public abstract void move(Game game);
 
     public void moveRandom(Game game) {
-        Position nextPos;
+        Position nextPos = getPosition();
         GameMap map = game.getMap();
-        Random randGen = new Random();
+        Random randGen = game.getEntityFactory().getRandom();
         List<Position> pos = getCardinallyAdjacentPositions();
-        pos = pos
-            .stream()
-            .filter(p -> map.canMoveTo(this, p)).collect(Collectors.toList());
-        nextPos = pos.size() == 0 ? getPosition() : pos.get(randGen.nextInt(pos.size()));
+        int count = 0;
+        for (Position p : pos) {
+            if (map.canMoveTo(this, p)) count++;
+        }
+        // pick uniformly among the cells we can move to without building a filtered list
+        if (count > 0) {
+            int pick = randGen.nextInt(count);
+            for (Position p : pos) {
+                if (map.canMoveTo(this, p) && pick-- == 0) {
+                    nextPos = p;
+                    break;
+                }
+            }
+        }
         map.moveTo(this, nextPos);
     }
 
     public void swamped(int movementFactor) {
         this.swampDebuff = movementFactor;
+        markChanged();
     }
 
     public boolean stuck() {
         if (swampDebuff > 0) {
             swampDebuff--;
+            markChanged();
             return true;
         }
         return false;
@@ -9,6 +9,8 @@ import dungeonmania.entities.Player;
 import dungeonmania.entities.buildables.Sceptre;
 import dungeonmania.entities.collectables.Treasure;
 import dungeonmania.map.GameMap;
+import dungeonmania.persistence.SaveContext;
+import dungeonmania.persistence.SaveRecord;
 import dungeonmania.util.Position;
 
 public class Mercenary extends Enemy implements Interactable {
@@ -38,10 +40,12 @@ public class Mercenary extends Enemy implements Interactable {
 
     public void setAlly() {
         this.allied = true;
+        markChanged();
     }
 
     public void setHostile() {
         this.allied = false;
+        markChanged();
     }
 
     @Override
@@ -50,6 +54,25 @@ public class Mercenary extends Enemy implements Interactable {
         super.onOverlap(map, entity);
     }
 
+    @Override
+    public void onDestroy(GameMap map) {
+        super.onDestroy(map);
+        if (allied) map.getPlayer().invalidateBuff();
+    }
+
+    @Override
+    public void writeState(SaveRecord record) {
+        super.writeState(record);
+        record.put("allied", allied).put("following", following);
+    }
+
+    @Override
+    public void readState(SaveRecord record, SaveContext context) {
+        super.readState(record, context);
+        allied = record.getBoolean("allied", false);
+        following = record.getBoolean("following", false);
+    }
+
     /**
      * check whether the current merc can be bribed
      * @param player
@@ -80,6 +103,7 @@ public class Mercenary extends Enemy implements Interactable {
             player.use(sceptre, this, game.getTick());
         } else {
             setAlly();
+            player.invalidateBuff();
             bribe(player);
         }
     }
@@ -93,9 +117,13 @@ public class Mercenary extends Enemy implements Interactable {
         checkCardinallyAdjacentPlayer(player);
 
         if (allied && following) {
-            setPosition(player.getPreviousDistinctPosition());
+            Position trail = player.getPreviousDistinctPosition();
+            if (trail == null) return;
+            map.removeNode(this);
+            setPosition(trail);
+            map.addEntity(this);
         } else {
-            Position nextPos = map.dijkstraPathFind(getPosition(), map.getPlayerPosition(), this);
+            Position nextPos = map.pathFindToPlayer(this);
             map.moveTo(this, nextPos);
             checkCardinallyAdjacentPlayer(player);
         }
@@ -111,6 +139,7 @@ public class Mercenary extends Enemy implements Interactable {
         for (Position position : validPositions) {
             if (getPosition().equals(position)) {
                 this.following = true;
+                markChanged();
             }
         }
     }
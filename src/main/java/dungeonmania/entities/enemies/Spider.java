@@ -5,6 +5,9 @@ import java.util.List;
 import dungeonmania.Game;
 import dungeonmania.entities.Boulder;
 import dungeonmania.entities.Entity;
+import dungeonmania.persistence.SaveContext;
+import dungeonmania.persistence.SaveRecord;
+import dungeonmania.util.Direction;
 import dungeonmania.util.Position;
 
 
@@ -31,8 +34,27 @@ public class Spider extends Enemy {
         direction = 1;
     };
 
+    // the trajectory is the ring around the cell the spider spawned on, so only that cell is saved
+    @Override
+    public void writeState(SaveRecord record) {
+        super.writeState(record);
+        record.put("origin", Position.translateBy(movementTrajectory.get(1), Direction.DOWN))
+            .put("next_position", nextPositionElement)
+            .put("direction", direction);
+    }
+
+    @Override
+    public void readState(SaveRecord record, SaveContext context) {
+        super.readState(record, context);
+        Position origin = record.getPosition("origin", null);
+        if (origin != null) movementTrajectory = origin.getAdjacentPositions();
+        nextPositionElement = record.getInt("next_position", 1);
+        direction = record.getInt("direction", 1);
+    }
+
     private void updateNextPosition() {
         nextPositionElement = Math.floorMod(nextPositionElement + direction, 8);
+        markChanged();
     }
 
     @Override
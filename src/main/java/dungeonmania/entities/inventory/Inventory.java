@@ -1,8 +1,12 @@
 package dungeonmania.entities.inventory;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 import java.io.Serializable;
 
 import dungeonmania.entities.BattleItem;
@@ -10,101 +14,144 @@ import dungeonmania.entities.Entity;
 import dungeonmania.entities.EntityFactory;
 import dungeonmania.entities.Player;
 import dungeonmania.entities.buildables.Bow;
-import dungeonmania.entities.collectables.Arrow;
-import dungeonmania.entities.collectables.Key;
 import dungeonmania.entities.collectables.Sword;
-import dungeonmania.entities.collectables.Treasure;
-import dungeonmania.entities.collectables.Wood;
-import dungeonmania.entities.collectables.SunStone;
-
+import dungeonmania.util.NameConverter;
+import dungeonmania.util.TypeIndex;
+
+/**
+ * Inventory -- the items the player is carrying.
+ * Items are filed by type, by name and by id, so counts, first-of-type and id
+ * lookups don't scan the whole inventory. Whether each recipe can be built is
+ * tracked as items come and go, rechecking only the recipes that use the item,
+ * so asking what is buildable never recounts anything.
+ */
 public class Inventory implements Serializable {
-    private List<InventoryItem> items = new ArrayList<>();
+    private TypeIndex<InventoryItem> items = new TypeIndex<>();
+    private Map<String, InventoryItem> itemsById = new HashMap<>();
+    private Map<String, Set<InventoryItem>> itemsByName = new HashMap<>();
+    private int version = 0;
+
+    private RecipeBook recipes;
+    private boolean[] satisfied;
+
+    // buildables with and without zombies on the map, valid while buildablesVersion matches version
+    private transient List<String> buildables = null;
+    private transient List<String> buildablesWithZombies = null;
+    private transient int buildablesVersion;
+
+    public Inventory() {
+        this(RecipeBook.defaults());
+    }
+
+    public Inventory(RecipeBook recipes) {
+        this.recipes = recipes;
+        this.satisfied = new boolean[recipes.size()];
+        for (int i = 0; i < recipes.size(); i++) {
+            satisfied[i] = recipes.get(i).isSatisfiedBy(this);
+        }
+    }
 
     public boolean add(InventoryItem item) {
+        String name = NameConverter.toSnakeCase((Entity) item);
         items.add(item);
+        itemsById.put(((Entity) item).getId(), item);
+        itemsByName.computeIfAbsent(name, k -> new LinkedHashSet<>()).add(item);
+        version++;
+        recheck(name);
         return true;
     }
 
     public void remove(InventoryItem item) {
+        String id = ((Entity) item).getId();
+        if (itemsById.get(id) != item) return;
+        String name = NameConverter.toSnakeCase((Entity) item);
         items.remove(item);
+        itemsById.remove(id);
+        itemsByName.get(name).remove(item);
+        version++;
+        recheck(name);
     }
 
-    public List<String> getBuildables(int numZombies) {
-
-        int wood = count(Wood.class);
-        int arrows = count(Arrow.class);
-        int treasure = count(Treasure.class);
-        int keys = count(Key.class);
-        int sunStones = count(SunStone.class);
-        int swords = count(Sword.class);
-
-        List<String> result = new ArrayList<>();
-
-        if (wood >= 1 && arrows >= 3)
-            result.add("bow");
-
-        if (wood >= 2 && (treasure >= 1 || keys >= 1 || sunStones >= 1))
-            result.add("shield");
+    private void recheck(String name) {
+        for (int i : recipes.usedBy(name)) {
+            satisfied[i] = recipes.get(i).isSatisfiedBy(this);
+        }
+    }
 
-        if (swords >= 1 && sunStones >= 1 && numZombies == 0)
-            result.add("midnight_armour");
+    public RecipeBook getRecipes() {
+        return recipes;
+    }
 
-        if ((wood >= 1 || arrows >= 2) && (keys >= 1 || treasure >= 1 || sunStones >= 2) && sunStones >= 1)
-            result.add("sceptre");
+    /**
+     * @return what can be built from the current contents. The list is shared and read-only.
+     */
+    public List<String> getBuildables(int numZombies) {
+        if (buildables == null || buildablesVersion != version) {
+            buildables = Collections.unmodifiableList(collectBuildables(false));
+            buildablesWithZombies = Collections.unmodifiableList(collectBuildables(true));
+            buildablesVersion = version;
+        }
+        return (numZombies == 0) ? buildables : buildablesWithZombies;
+    }
 
+    private List<String> collectBuildables(boolean zombiesPresent) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < recipes.size(); i++) {
+            Recipe recipe = recipes.get(i);
+            if (satisfied[i] && !(zombiesPresent && recipe.requiresNoZombies()))
+                result.add(recipe.getName());
+        }
         return result;
     }
 
+    /**
+     * Use up the ingredients for the named item and build it
+     * @return the new item, or null if it can't be built right now
+     */
     public InventoryItem buildItem(Player p, String item, EntityFactory factory, int numZombies) {
+        if (!getBuildables(numZombies).contains(item)) return null;
+        // made first, so nothing is used up if it can't be
+        InventoryItem built = factory.buildItem(item);
+        if (built == null || !recipes.get(item).consume(this)) return null;
+        return built;
+    }
 
-        List<String> buildables = getBuildables(numZombies);
-
-        if (buildables.contains(item)) {
-            switch (item) {
-            case "bow":
-                removeBowItems();
-                return factory.buildBow();
-            case "shield":
-                removeShieldItems();
-                return factory.buildShield();
-            case "midnight_armour":
-                removeMidnightArmourItems();
-                return factory.buildMidnightArmour();
-            case "sceptre":
-                removeSceptreItems();
-                return factory.buildSceptre();
-            default:
-                return null;
-            }
-        }
-        return null;
+    /**
+     * A counter bumped on every change, so callers can tell whether anything
+     * derived from the contents is stale
+     */
+    public int getVersion() {
+        return version;
     }
 
     public <T extends InventoryItem> T getFirst(Class<T> itemType) {
-        for (InventoryItem item : items)
-            if (itemType.isInstance(item)) return itemType.cast(item);
-        return null;
+        return items.getFirst(itemType);
     }
 
     public <T extends InventoryItem> int count(Class<T> itemType) {
-        int count = 0;
-        for (InventoryItem item : items)
-            if (itemType.isInstance(item)) count++;
-        return count;
+        return items.count(itemType);
     }
 
     public Entity getEntity(String itemUsedId) {
-        for (InventoryItem item : items)
-            if (((Entity) item).getId().equals(itemUsedId)) return (Entity) item;
-        return null;
+        return (Entity) itemsById.get(itemUsedId);
     }
 
     public List<Entity> getEntities() {
-        return items.stream().map(Entity.class::cast).collect(Collectors.toList());
+        return items.get(Entity.class);
     }
 
     public <T> List<T> getEntities(Class<T> clz) {
-        return items.stream().filter(clz::isInstance).map(clz::cast).collect(Collectors.toList());
+        return items.get(clz);
+    }
+
+    int count(String name) {
+        Set<InventoryItem> bucket = itemsByName.get(name);
+        return (bucket == null) ? 0 : bucket.size();
+    }
+
+    InventoryItem getFirst(String name) {
+        Set<InventoryItem> bucket = itemsByName.get(name);
+        return (bucket == null || bucket.isEmpty()) ? null : bucket.iterator().next();
     }
 
     public boolean hasWeapon() {
@@ -117,62 +164,4 @@ public class Inventory implements Serializable {
             return getFirst(Bow.class);
         return weapon;
     }
-
-    private void removeBowItems() {
-        List<Wood> wood = getEntities(Wood.class);
-        List<Arrow> arrows = getEntities(Arrow.class);
-
-        items.remove(wood.get(0));
-        items.remove(arrows.get(0));
-        items.remove(arrows.get(1));
-        items.remove(arrows.get(2));
-    }
-
-    private void removeShieldItems() {
-        List<Wood> wood = getEntities(Wood.class);
-        List<Treasure> treasure = getEntities(Treasure.class);
-        List<Key> keys = getEntities(Key.class);
-        List<SunStone> sunStones = getEntities(SunStone.class);
-
-        items.remove(wood.get(0));
-        items.remove(wood.get(1));
-        if (sunStones.size() >= 1) {
-            return;
-        } else if (treasure.size() >= 1) {
-            items.remove(treasure.get(0));
-        } else {
-            items.remove(keys.get(0));
-        }
-    }
-
-    private void removeMidnightArmourItems() {
-        List<Sword> swords = getEntities(Sword.class);
-        List<SunStone> sunStones = getEntities(SunStone.class);
-
-        items.remove(swords.get(0));
-        items.remove(sunStones.get(0));
-    }
-
-    private void removeSceptreItems() {
-        List<Wood> wood = getEntities(Wood.class);
-        List<Arrow> arrows = getEntities(Arrow.class);
-        List<Treasure> treasure = getEntities(Treasure.class);
-        List<Key> keys = getEntities(Key.class);
-        List<SunStone> sunStones = getEntities(SunStone.class);
-
-        if (wood.size() >= 1) {
-            items.remove(wood.get(0));
-        } else if (arrows.size() >= 2) {
-            items.remove(arrows.get(0));
-            items.remove(arrows.get(1));
-        }
-
-        if (sunStones.size() >= 2) return;
-
-        if (keys.size() >= 1) {
-            items.remove(keys.get(0));
-        } else if (treasure.size() >= 1) {
-            items.remove(treasure.get(0));
-        }
-    }
 }
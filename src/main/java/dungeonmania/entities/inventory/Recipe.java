@@ -0,0 +1,146 @@
+package dungeonmania.entities.inventory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Recipe -- what it takes to build one kind of item.
+ * A recipe is a list of requirements that must all be met. Each requirement
+ * lists alternative ingredients, any one of which will do; when building, the
+ * first alternatives that cover every requirement at once are the ones used
+ * up, and no item counts towards two requirements. Ingredients marked as not
+ * consumed only have to be held, as sun stones are.
+ *
+ * In JSON:
+ * <pre>
+ * { "name": "shield", "requires": [
+ *     [ { "item": "wood", "count": 2 } ],
+ *     [ { "item": "sun_stone", "consumed": false }, { "item": "treasure" }, { "item": "key" } ] ] }
+ * </pre>
+ * "count" defaults to 1 and "consumed" to true. "no_zombies": true stops the
+ * item being built while any zombie toast is on the map.
+ */
+public final class Recipe implements Serializable {
+    private final String name;
+    private final List<List<Ingredient>> requires;
+    private final boolean noZombies;
+
+    public Recipe(String name, List<List<Ingredient>> requires, boolean noZombies) {
+        this.name = name;
+        this.requires = requires;
+        this.noZombies = noZombies;
+    }
+
+    public static Recipe fromJson(JSONObject json) {
+        List<List<Ingredient>> requires = new ArrayList<>();
+        JSONArray groups = json.getJSONArray("requires");
+        for (int i = 0; i < groups.length(); i++) {
+            JSONArray alternatives = groups.getJSONArray(i);
+            List<Ingredient> group = new ArrayList<>();
+            for (int j = 0; j < alternatives.length(); j++) {
+                JSONObject ingredient = alternatives.getJSONObject(j);
+                group.add(new Ingredient(
+                        ingredient.getString("item"),
+                        ingredient.optInt("count", 1),
+                        ingredient.optBoolean("consumed", true)));
+            }
+            requires.add(Collections.unmodifiableList(group));
+        }
+        return new Recipe(json.getString("name"), Collections.unmodifiableList(requires),
+                json.optBoolean("no_zombies", false));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean requiresNoZombies() {
+        return noZombies;
+    }
+
+    /**
+     * @return the names of every item this recipe looks at
+     */
+    public Set<String> getIngredientNames() {
+        Set<String> names = new LinkedHashSet<>();
+        for (List<Ingredient> group : requires) {
+            for (Ingredient ingredient : group) {
+                names.add(ingredient.item);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Whether the inventory holds enough to build this, ignoring any zombie rule
+     */
+    public boolean isSatisfiedBy(Inventory inventory) {
+        return choose(inventory) != null;
+    }
+
+    /**
+     * Take the ingredients for one build out of the inventory.
+     * Every choice is made before anything is removed, so earlier requirements
+     * can't use up what a later one was counting on.
+     * @return false, removing nothing, if the inventory doesn't hold enough
+     */
+    public boolean consume(Inventory inventory) {
+        List<Ingredient> chosen = choose(inventory);
+        if (chosen == null) return false;
+        for (Ingredient ingredient : chosen) {
+            if (!ingredient.consumed) continue;
+            for (int i = 0; i < ingredient.count; i++) {
+                inventory.remove(inventory.getFirst(ingredient.item));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return one alternative for each requirement, the earliest that let every
+     * requirement be met together, or null if there is no such choice
+     */
+    private List<Ingredient> choose(Inventory inventory) {
+        Ingredient[] chosen = new Ingredient[requires.size()];
+        return choose(0, chosen, new HashMap<>(), inventory) ? Arrays.asList(chosen) : null;
+    }
+
+    // items already promised to earlier requirements are counted in taken, so no item meets two requirements
+    private boolean choose(int group, Ingredient[] chosen, Map<String, Integer> taken, Inventory inventory) {
+        if (group == chosen.length) return true;
+        for (Ingredient ingredient : requires.get(group)) {
+            int already = taken.getOrDefault(ingredient.item, 0);
+            if (inventory.count(ingredient.item) < already + ingredient.count) continue;
+            taken.put(ingredient.item, already + ingredient.count);
+            chosen[group] = ingredient;
+            if (choose(group + 1, chosen, taken, inventory)) return true;
+            taken.put(ingredient.item, already);
+        }
+        return false;
+    }
+
+    /**
+     * Ingredient -- a number of items of one kind.
+     */
+    public static final class Ingredient implements Serializable {
+        private final String item;
+        private final int count;
+        private final boolean consumed;
+
+        public Ingredient(String item, int count, boolean consumed) {
+            this.item = item;
+            this.count = count;
+            this.consumed = consumed;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package dungeonmania.entities.inventory;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import dungeonmania.entities.EntityFactory;
+import dungeonmania.util.FileLoader;
+
+/**
+ * RecipeBook -- every recipe a game can build, in the order buildables are listed.
+ * The built-in recipes live in /recipes/default.json. A config can add recipes
+ * or replace built-in ones by name under a "recipes" key.
+ * The book also records which recipes use each item, so an inventory only has
+ * to recheck those recipes when it gains or loses that item.
+ */
+public final class RecipeBook implements Serializable {
+    private static final String DEFAULT_RECIPES = "/recipes/default.json";
+    private static RecipeBook defaults = null;
+
+    private final List<Recipe> recipes;
+    private final Map<String, Integer> indexByName = new HashMap<>();
+    private final Map<String, int[]> usedBy = new HashMap<>();
+
+    public RecipeBook(List<Recipe> recipes) {
+        this.recipes = Collections.unmodifiableList(new ArrayList<>(recipes));
+        Map<String, List<Integer>> users = new HashMap<>();
+        for (int i = 0; i < this.recipes.size(); i++) {
+            Recipe recipe = this.recipes.get(i);
+            indexByName.put(recipe.getName(), i);
+            for (String item : recipe.getIngredientNames()) {
+                users.computeIfAbsent(item, k -> new ArrayList<>()).add(i);
+            }
+        }
+        users.forEach((item, indices) -> usedBy.put(item, indices.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * The built-in recipes, read from the classpath the first time they are needed
+     */
+    public static synchronized RecipeBook defaults() {
+        if (defaults == null) {
+            try {
+                defaults = new RecipeBook(parse(new JSONArray(FileLoader.loadResourceFile(DEFAULT_RECIPES))));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return defaults;
+    }
+
+    /**
+     * The built-in recipes, with any in the config's "recipes" array added or
+     * replacing the built-in recipe of the same name
+     * @throws IllegalArgumentException if a recipe makes something that isn't an item or needs more than its type
+     */
+    public static RecipeBook fromConfig(JSONObject config) {
+        JSONArray custom = config.optJSONArray("recipes");
+        if (custom == null) return defaults();
+
+        Map<String, Recipe> merged = new LinkedHashMap<>();
+        for (Recipe recipe : defaults().recipes) {
+            merged.put(recipe.getName(), recipe);
+        }
+        for (Recipe recipe : parse(custom)) {
+            if (!EntityFactory.canBuildItem(recipe.getName()))
+                throw new IllegalArgumentException(recipe.getName() + " is not an item that can be built");
+            merged.put(recipe.getName(), recipe);
+        }
+        return new RecipeBook(new ArrayList<>(merged.values()));
+    }
+
+    private static List<Recipe> parse(JSONArray json) {
+        List<Recipe> result = new ArrayList<>();
+        for (int i = 0; i < json.length(); i++) {
+            result.add(Recipe.fromJson(json.getJSONObject(i)));
+        }
+        return result;
+    }
+
+    public int size() {
+        return recipes.size();
+    }
+
+    public Recipe get(int index) {
+        return recipes.get(index);
+    }
+
+    /**
+     * @return the recipe for the named item, or null if it can't be built
+     */
+    public Recipe get(String name) {
+        Integer index = indexByName.get(name);
+        return (index == null) ? null : recipes.get(index);
+    }
+
+    public List<String> getNames() {
+        List<String> names = new ArrayList<>(recipes.size());
+        for (Recipe recipe : recipes) {
+            names.add(recipe.getName());
+        }
+        return names;
+    }
+
+    /**
+     * @return the indices of the recipes that use the named item
+     */
+    int[] usedBy(String item) {
+        return usedBy.getOrDefault(item, new int[0]);
+    }
+}
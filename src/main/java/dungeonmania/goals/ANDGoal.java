@@ -3,6 +3,9 @@ package dungeonmania.goals;
 import java.io.Serializable;
 import dungeonmania.Game;
 
+import org.json.JSONArray;
+import org.json.JSONObject;
+
 public class ANDGoal implements Goal, Serializable {
 
     private Goal goal1;
@@ -18,8 +21,17 @@ public class ANDGoal implements Goal, Serializable {
         return goal1.achieved(game) && goal2.achieved(game);
     }
 
+    // a goal's string is empty exactly when it is achieved, so each subgoal is only evaluated once
     public String toString(Game game) {
-        return achieved(game) ? ""
-            : "(" + goal1.toString(game) + " AND " + goal2.toString(game) + ")";
+        String left = goal1.toString(game);
+        String right = goal2.toString(game);
+        return (game.getPlayer() != null && left.isEmpty() && right.isEmpty()) ? ""
+            : "(" + left + " AND " + right + ")";
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+            .put("goal", "AND")
+            .put("subgoals", new JSONArray().put(goal1.toJson()).put(goal2.toJson()));
     }
 }
@@ -3,16 +3,24 @@ package dungeonmania.goals;
 import java.io.Serializable;
 import dungeonmania.Game;
 import dungeonmania.entities.Switch;
+import dungeonmania.map.GameMap;
+
+import org.json.JSONObject;
 
 
 public class BoulderGoal implements Goal, Serializable {
 
     public boolean achieved(Game game) {
         if (game.getPlayer() == null) return false;
-        return game.getMapEntities(Switch.class).stream().allMatch(s -> s.isActivated());
+        GameMap map = game.getMap();
+        return map.countActiveSwitches() == map.countEntities(Switch.class);
     }
 
     public String toString(Game game) {
         return achieved(game) ? "" : ":boulders";
     }
+
+    public JSONObject toJson() {
+        return new JSONObject().put("goal", "boulders");
+    }
 }
@@ -5,6 +5,8 @@ import java.io.Serializable;
 import dungeonmania.Game;
 import dungeonmania.entities.enemies.ZombieToastSpawner;
 
+import org.json.JSONObject;
+
 public class EnemyGoal implements Goal, Serializable {
 
     private int target;
@@ -16,10 +18,14 @@ public class EnemyGoal implements Goal, Serializable {
     public boolean achieved(Game game) {
         if (game.getPlayer() == null) return false;
         return game.getPlayer().getEnemiesDestroyed() >= target
-            && game.getMapEntities(ZombieToastSpawner.class).size() == 0;
+            && game.getMap().countEntities(ZombieToastSpawner.class) == 0;
     }
 
     public String toString(Game game) {
         return achieved(game) ? "" : ":enemies";
     }
+
+    public JSONObject toJson() {
+        return new JSONObject().put("goal", "enemies");
+    }
 }
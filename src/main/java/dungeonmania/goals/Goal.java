@@ -3,7 +3,14 @@ package dungeonmania.goals;
 import dungeonmania.Game;
 import java.io.Serializable;
 
+import org.json.JSONObject;
+
 public interface Goal extends Serializable {
     public boolean achieved(Game game);
     public String toString(Game game);
+
+    /**
+     * The goal as it is written in a dungeon file's goal-condition
+     */
+    public JSONObject toJson();
 }
@@ -3,8 +3,10 @@ package dungeonmania.goals;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import dungeonmania.GameConfig;
+
 public class GoalFactory {
-    public static Goal createGoal(JSONObject jsonGoal, JSONObject config) {
+    public static Goal createGoal(JSONObject jsonGoal, GameConfig config) {
         JSONArray subgoals;
         switch (jsonGoal.getString("goal")) {
         case "AND":
@@ -24,11 +26,9 @@ public class GoalFactory {
         case "boulders":
             return new BoulderGoal();
         case "treasure":
-            int treasureGoal = config.optInt("treasure_goal", 1);
-            return new TreasureGoal(treasureGoal);
+            return new TreasureGoal(config.getTreasureGoal());
         case "enemies":
-            int enemyGoal = config.optInt("enemy_goal", 1);
-            return new EnemyGoal(enemyGoal);
+            return new EnemyGoal(config.getEnemyGoal());
         default:
             return null;
         }
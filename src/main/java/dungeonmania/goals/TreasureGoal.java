@@ -5,6 +5,9 @@ import java.io.Serializable;
 import dungeonmania.Game;
 import dungeonmania.entities.collectables.Treasure;
 import dungeonmania.entities.collectables.SunStone;
+import dungeonmania.map.GameMap;
+
+import org.json.JSONObject;
 
 public class TreasureGoal implements Goal, Serializable {
 
@@ -16,11 +19,16 @@ public class TreasureGoal implements Goal, Serializable {
 
     public boolean achieved(Game game) {
         if (game.getPlayer() == null) return false;
-        return game.getInitialTreasureCount() - game.getMapEntities(Treasure.class).size()
-             + game.getInitialSunStoneCount() - game.getMapEntities(SunStone.class).size() >= target;
+        GameMap map = game.getMap();
+        return game.getInitialTreasureCount() - map.countEntities(Treasure.class)
+             + game.getInitialSunStoneCount() - map.countEntities(SunStone.class) >= target;
     }
 
     public String toString(Game game) {
         return achieved(game) ? "" : ":treasure";
     }
+
+    public JSONObject toJson() {
+        return new JSONObject().put("goal", "treasure");
+    }
 }
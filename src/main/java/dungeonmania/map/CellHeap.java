@@ -0,0 +1,93 @@
+package dungeonmania.map;
+
+/**
+ * CellHeap -- an indexed binary min-heap of grid cell indices.
+ * Each queued cell remembers its slot in the heap, so lowering a cell's
+ * priority is an O(log n) sift rather than a linear remove and re-add.
+ * The backing arrays are reused between searches; clear() is O(1).
+ */
+public class CellHeap {
+    private int[] heap = new int[0];
+    private int[] slot = new int[0];
+    private long[] priority = new long[0];
+    private int size = 0;
+
+    /**
+     * Make room for cells numbered 0 to cells - 1 and empty the heap
+     */
+    public void reset(int cells) {
+        if (cells > slot.length) {
+            int capacity = Math.max(cells, slot.length * 2);
+            heap = new int[capacity];
+            slot = new int[capacity];
+            priority = new long[capacity];
+        }
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int cell) {
+        int i = slot[cell];
+        return i >= 0 && i < size && heap[i] == cell;
+    }
+
+    /**
+     * Queue a cell, or move it up if it is already queued with a higher priority
+     */
+    public void offer(int cell, long newPriority) {
+        if (contains(cell)) {
+            if (newPriority >= priority[cell]) return;
+        } else {
+            heap[size] = cell;
+            slot[cell] = size;
+            size++;
+        }
+        priority[cell] = newPriority;
+        siftUp(slot[cell]);
+    }
+
+    public int poll() {
+        int top = heap[0];
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            slot[heap[0]] = 0;
+            siftDown(0);
+        }
+        slot[top] = -1;
+        return top;
+    }
+
+    private void siftUp(int i) {
+        int cell = heap[i];
+        long p = priority[cell];
+        while (i > 0) {
+            int up = (i - 1) / 2;
+            if (priority[heap[up]] <= p) break;
+            heap[i] = heap[up];
+            slot[heap[i]] = i;
+            i = up;
+        }
+        heap[i] = cell;
+        slot[cell] = i;
+    }
+
+    private void siftDown(int i) {
+        int cell = heap[i];
+        long p = priority[cell];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && priority[heap[child + 1]] < priority[heap[child]]) child++;
+            if (priority[heap[child]] >= p) break;
+            heap[i] = heap[child];
+            slot[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = cell;
+        slot[cell] = i;
+    }
+}
@@ -0,0 +1,197 @@
+package dungeonmania.map;
+
+import java.util.Arrays;
+import java.util.List;
+
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.Portal;
+import dungeonmania.util.Position;
+
+/**
+ * DistanceField -- the cost from every cell to a single target for one kind of mover.
+ * The field is built with one reverse Dijkstra search from the target, so any
+ * number of pursuers can read their next step from it in O(1) instead of each
+ * running its own search towards the same target.
+ * It is rebuilt only when the target moves, the grid grows or the map's
+ * pathing version changes.
+ */
+public class DistanceField {
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private static final int[] CARDINAL_X = {0, 1, 0, -1};
+    private static final int[] CARDINAL_Y = {-1, 0, 1, 0};
+    private static final int[] ADJACENT_X = {-1, 0, 1, 1, 1, 0, -1, -1};
+    private static final int[] ADJACENT_Y = {-1, -1, -1, 0, 1, 1, 1, 0};
+
+    private final GameMap map;
+    private final NodeGrid nodes;
+
+    private int originX;
+    private int originY;
+    private int width;
+    private int height;
+    private int targetX;
+    private int targetY;
+    private int version = -1;
+
+    private int[] dist = new int[0];
+    private CellHeap queue = new CellHeap();
+    private Portal[] portals = new Portal[0];
+
+    public DistanceField(GameMap map, NodeGrid nodes) {
+        this.map = map;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Find the first step on a cheapest path from src to dest for the given entity.
+     * Stepping next to a portal returns the best cell beside its pair, as PathFinder does.
+     * @return the position to move to, or src if dest is unreachable within the cost limit
+     */
+    public Position nextStep(Position src, Position dest, Entity entity, int pathingVersion) {
+        if (!nodes.contains(src) || !nodes.contains(dest) || src.equals(dest))
+            return src;
+        update(dest, entity, pathingVersion);
+
+        int bestX = src.getX();
+        int bestY = src.getY();
+        int bestCost = UNREACHED;
+        for (int i = 0; i < CARDINAL_X.length; i++) {
+            int x = src.getX() + CARDINAL_X[i];
+            int y = src.getY() + CARDINAL_Y[i];
+            if (!inWindow(x, y) || !map.canMoveTo(entity, x, y)) continue;
+            int cost = dist(x, y);
+            if (cost == UNREACHED) continue;
+            GraphNode node = nodes.get(x, y);
+            cost += (node == null) ? 1 : node.getWeight();
+
+            int stepX = x;
+            int stepY = y;
+            Position pair = (node == null) ? null : pairOf(node);
+            if (pair != null) {
+                // stepping onto a portal lands on the best cell beside its pair
+                int exit = bestExit(pair, entity);
+                if (exit < 0) continue;
+                stepX = originX + exit % width;
+                stepY = originY + exit / width;
+            }
+            if (isBetter(cost, stepX, stepY, bestCost, bestX, bestY)) {
+                bestCost = cost;
+                bestX = stepX;
+                bestY = stepY;
+            }
+        }
+        if (bestCost > PathFinder.MAX_COST) return src;
+        return Position.of(bestX, bestY);
+    }
+
+    // cheapest first, then closest to the target, then the step that closes the longer axis
+    private boolean isBetter(int cost, int x, int y, int bestCost, int bestX, int bestY) {
+        if (cost != bestCost) return cost < bestCost;
+        int h = Math.abs(x - targetX) + Math.abs(y - targetY);
+        int bestH = Math.abs(bestX - targetX) + Math.abs(bestY - targetY);
+        if (h != bestH) return h < bestH;
+        return Math.max(Math.abs(x - targetX), Math.abs(y - targetY))
+            < Math.max(Math.abs(bestX - targetX), Math.abs(bestY - targetY));
+    }
+
+    private int bestExit(Position pair, Entity entity) {
+        int best = -1;
+        for (int i = 0; i < ADJACENT_X.length; i++) {
+            int x = pair.getX() + ADJACENT_X[i];
+            int y = pair.getY() + ADJACENT_Y[i];
+            if (!inWindow(x, y) || !map.canMoveTo(entity, x, y)) continue;
+            int cell = indexOf(x, y);
+            if (dist[cell] == UNREACHED) continue;
+            if (best < 0 || isBetter(dist[cell], x, y, dist[best], originX + best % width, originY + best / width))
+                best = cell;
+        }
+        return best;
+    }
+
+    private void update(Position dest, Entity entity, int pathingVersion) {
+        if (version == pathingVersion && targetX == dest.getX() && targetY == dest.getY()
+                && originX == nodes.getMinX() - 1 && originY == nodes.getMinY() - 1
+                && width == nodes.getWidth() + 2 && height == nodes.getHeight() + 2)
+            return;
+        version = pathingVersion;
+        targetX = dest.getX();
+        targetY = dest.getY();
+        originX = nodes.getMinX() - 1;
+        originY = nodes.getMinY() - 1;
+        width = nodes.getWidth() + 2;
+        height = nodes.getHeight() + 2;
+        build(entity);
+    }
+
+    /**
+     * Search outwards from the target along reversed moves. Walking onto a cell
+     * costs that cell's weight, and walking onto a portal costs the portal's
+     * weight plus the distance from the best cell beside its pair.
+     */
+    private void build(Entity entity) {
+        int area = width * height;
+        if (area > dist.length) dist = new int[Math.max(area, dist.length * 2)];
+        Arrays.fill(dist, 0, area, UNREACHED);
+        queue.reset(area);
+        if (map.countEntities(Portal.class) != portals.length)
+            portals = map.getEntities(Portal.class).toArray(new Portal[0]);
+
+        int target = indexOf(targetX, targetY);
+        dist[target] = 0;
+        queue.offer(target, 0);
+        while (!queue.isEmpty()) {
+            int curr = queue.poll();
+            int x = originX + curr % width;
+            int y = originY + curr / width;
+            // a mover can only arrive here if it is allowed to step onto this cell
+            if (!map.canMoveTo(entity, x, y)) continue;
+
+            GraphNode node = nodes.get(x, y);
+            int through = dist[curr] + ((node == null) ? 1 : node.getWeight());
+            if (through <= PathFinder.MAX_COST) {
+                for (int i = 0; i < CARDINAL_X.length; i++) {
+                    int nx = x + CARDINAL_X[i];
+                    int ny = y + CARDINAL_Y[i];
+                    if (!inWindow(nx, ny)) continue;
+                    // movers on a portal are teleported rather than walking off it
+                    GraphNode next = nodes.get(nx, ny);
+                    if (next != null && pairOf(next) != null) continue;
+                    relax(indexOf(nx, ny), through);
+                }
+            }
+            for (Portal portal : portals) {
+                Position pair = portal.getPairPosition();
+                if (pair == null || Math.max(Math.abs(pair.getX() - x), Math.abs(pair.getY() - y)) != 1) continue;
+                relax(indexOf(portal.getPosition().getX(), portal.getPosition().getY()), dist[curr]);
+            }
+        }
+    }
+
+    private void relax(int cell, int cost) {
+        if (cost >= dist[cell]) return;
+        dist[cell] = cost;
+        queue.offer(cell, cost);
+    }
+
+    private int dist(int x, int y) {
+        return dist[indexOf(x, y)];
+    }
+
+    private Position pairOf(GraphNode node) {
+        List<Entity> entities = node.getEntities();
+        for (int i = 0; i < entities.size(); i++) {
+            Entity e = entities.get(i);
+            if (e instanceof Portal) return ((Portal) e).getPairPosition();
+        }
+        return null;
+    }
+
+    private boolean inWindow(int x, int y) {
+        return x >= originX && y >= originY && x < originX + width && y < originY + height;
+    }
+
+    private int indexOf(int x, int y) {
+        return (y - originY) * width + (x - originX);
+    }
+}
@@ -4,8 +4,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 import dungeonmania.Game;
@@ -18,11 +19,19 @@ import dungeonmania.entities.enemies.Enemy;
 import dungeonmania.entities.enemies.ZombieToastSpawner;
 import dungeonmania.util.Direction;
 import dungeonmania.util.Position;
+import dungeonmania.util.TypeIndex;
 
 
 public class GameMap implements Serializable {
     private Game game;
-    private Map<Position, GraphNode> nodes = new HashMap<>();
+    private NodeGrid nodes = new NodeGrid();
+    private transient Map<String, Entity> entitiesById = new HashMap<>();
+    private transient TypeIndex<Entity> entitiesByType = new TypeIndex<>();
+    private transient PathFinder pathFinder;
+    private transient Map<Class<?>, DistanceField> playerFields = new HashMap<>();
+    private int pathingVersion = 0;
+    // how many of the indexed switches are activated; Switch reports every change
+    private transient int activeSwitches = 0;
     private Player player;
 
     /**
@@ -52,7 +61,7 @@ public class GameMap implements Serializable {
     // Pair up portals if there's any
     private void initPairPortals() {
         Map<String, Portal> portalsMap = new HashMap<>();
-        nodes.forEach((k, v) -> {
+        nodes.forEach(v -> {
             v.getEntities()
                     .stream()
                     .filter(Portal.class::isInstance)
@@ -69,19 +78,32 @@ public class GameMap implements Serializable {
     }
 
     private void initRegisterMovables() {
-        List<Enemy> enemies = getEntities(Enemy.class);
-        enemies.forEach(e -> {
-            game.register((Runnable & Serializable) () -> e.move(game), Game.AI_MOVEMENT, e.getId());
-        });
+        getEntities(Enemy.class).forEach(game::registerEnemy);
     }
 
     private void initRegisterSpawners() {
-        List<ZombieToastSpawner> zts = getEntities(ZombieToastSpawner.class);
-        zts.forEach(e -> {
-            game.register((Runnable & Serializable) () -> e.spawn(game), Game.AI_MOVEMENT, e.getId());
-        });
-        game.register((Runnable & Serializable)
-            () -> game.getEntityFactory().spawnSpider(game), Game.AI_MOVEMENT, "zombieToastSpawner");
+        getEntities(ZombieToastSpawner.class).forEach(game::registerSpawner);
+        game.registerSpiderSpawner();
+    }
+
+    /**
+     * How big this map is, to size others for the same dungeon with
+     */
+    public Layout getLayout() {
+        return new Layout(nodes.getMinX(), nodes.getMinY(), nodes.getWidth(), nodes.getHeight(),
+            entitiesById.size(), entitiesByType.counts());
+    }
+
+    /**
+     * An empty map with room for the nodes and entities of the given layout,
+     * so filling it with the same dungeon never has to grow anything
+     */
+    public static GameMap emptyLike(Layout layout) {
+        GameMap map = new GameMap();
+        map.nodes = new NodeGrid(layout.minX, layout.minY, layout.width, layout.height);
+        map.entitiesById = new HashMap<>(layout.entities * 4 / 3 + 1);
+        map.entitiesByType = TypeIndex.withRoomFor(layout.types);
+        return map;
     }
 
     public void moveTo(Entity entity, Position position) {
@@ -126,79 +148,53 @@ public class GameMap implements Serializable {
     }
 
     public boolean canMoveTo(Entity entity, Position position) {
-        return !nodes.containsKey(position) || nodes.get(position).canMoveOnto(this, entity);
+        return canMoveTo(entity, position.getX(), position.getY());
     }
 
+    public boolean canMoveTo(Entity entity, int x, int y) {
+        GraphNode node = nodes.get(x, y);
+        return node == null || node.canMoveOnto(this, entity);
+    }
 
-    public Position dijkstraPathFind(Position src, Position dest, Entity entity) {
-        // if inputs are invalid, don't move
-        if (!nodes.containsKey(src) || !nodes.containsKey(dest))
-        return src;
-
-        Map<Position, Integer> dist = new HashMap<>();
-        Map<Position, Position> prev = new HashMap<>();
-        Map<Position, Boolean> visited = new HashMap<>();
-
-        prev.put(src, null);
-        dist.put(src, 0);
+    /**
+     * Find the first step on a cheapest path from src to dest for the given entity
+     */
+    public Position pathFind(Position src, Position dest, Entity entity) {
+        if (pathFinder == null) pathFinder = new PathFinder(this, nodes);
+        return pathFinder.nextStep(src, dest, entity);
+    }
 
-        PriorityQueue<Position> q = new PriorityQueue<>((x, y) ->
-            Integer.compare(dist.getOrDefault(x, Integer.MAX_VALUE), dist.getOrDefault(y, Integer.MAX_VALUE)));
-        q.add(src);
+    /**
+     * Find the first step on a cheapest path to the player for the given entity.
+     * Movers of the same class share one distance field around the player, so
+     * this is O(1) unless the player has moved or the map's layout has changed.
+     */
+    public Position pathFindToPlayer(Entity entity) {
+        DistanceField field = playerFields.computeIfAbsent(entity.getClass(), k -> new DistanceField(this, nodes));
+        return field.nextStep(entity.getPosition(), getPlayerPosition(), entity, pathingVersion);
+    }
 
-        while (!q.isEmpty()) {
-            Position curr = q.poll();
-            if (curr.equals(dest) || dist.get(curr) > 200) break;
-            // check portal
-            if (nodes.containsKey(curr) && nodes.get(curr).getEntities().stream().anyMatch(Portal.class::isInstance)) {
-                Portal portal = nodes.get(curr).getEntities()
-                    .stream()
-                    .filter(Portal.class::isInstance).map(Portal.class::cast)
-                    .collect(Collectors.toList())
-                    .get(0);
-                List<Position> teleportDest = portal.getDestPositions(this, entity);
-                teleportDest.stream()
-                .filter(p -> !visited.containsKey(p))
-                .forEach(p -> {
-                    dist.put(p, dist.get(curr));
-                    prev.put(p, prev.get(curr));
-                    q.add(p);
-                });
-                continue;
-            }
-            visited.put(curr, true);
-            List<Position> neighbours = curr.getCardinallyAdjacentPositions()
-            .stream()
-            .filter(p -> !visited.containsKey(p))
-            .filter(p -> !nodes.containsKey(p) || nodes.get(p).canMoveOnto(this, entity))
-            .collect(Collectors.toList());
-
-            neighbours.forEach(n -> {
-                int newDist = dist.get(curr) + (nodes.containsKey(n) ? nodes.get(n).getWeight() : 1);
-                if (newDist < dist.getOrDefault(n, Integer.MAX_VALUE)) {
-                    q.remove(n);
-                    dist.put(n, newDist);
-                    prev.put(n, curr);
-                    q.add(n);
-                }
-            });
-        }
-        Position ret = dest;
-        if (prev.get(ret) == null || ret.equals(src)) return src;
-        while (!prev.get(ret).equals(src)) {
-            ret = prev.get(ret);
-        }
-        return ret;
+    /**
+     * Tell the map an entity changed in a way that may affect where others can move
+     */
+    public void notifyStateChanged(Entity entity) {
+        if (!entity.affectsPathing()) return;
+        pathingVersion++;
+        GraphNode node = nodes.get(entity.getPosition());
+        if (node != null) node.invalidate();
     }
 
     public void removeNode(Entity entity) {
         Position p = entity.getPosition();
-        if (nodes.containsKey(p)) {
-            nodes.get(p).removeEntity(entity);
-            if (nodes.get(p).size() == 0) {
+        GraphNode node = nodes.get(p);
+        if (node != null) {
+            node.removeEntity(entity);
+            if (node.size() == 0) {
                 nodes.remove(p);
             }
         }
+        unindex(entity);
+        notifyStateChanged(entity);
     }
 
     public void destroyEntity(Entity entity) {
@@ -211,30 +207,54 @@ public class GameMap implements Serializable {
     }
 
     public void addNode(GraphNode node) {
-        Position p = node.getPosition();
-
-        if (!nodes.containsKey(p))
-        nodes.put(p, node);
-        else {
-            GraphNode curr = nodes.get(p);
-            curr.mergeNode(node);
-            nodes.put(p, curr);
+        GraphNode curr = nodes.get(node.getPosition());
+
+        if (curr == null)
+        nodes.put(node);
+        else
+        curr.mergeNode(node);
+        node.getEntities().forEach(e -> {
+            index(e);
+            notifyStateChanged(e);
+        });
+    }
+
+    private void index(Entity entity) {
+        if (entitiesById.put(entity.getId(), entity) == null) {
+            entitiesByType.add(entity);
+            if (entity instanceof Switch && ((Switch) entity).isActivated()) activeSwitches++;
         }
     }
 
-    public Entity getEntity(String id) {
-        Entity res = null;
-        for (Map.Entry<Position, GraphNode> entry : nodes.entrySet()) {
-            List<Entity> es = entry.getValue().getEntities()
-            .stream()
-            .filter(e -> e.getId().equals(id))
-            .collect(Collectors.toList());
-            if (es != null && es.size() > 0) {
-                res = es.get(0);
-                break;
-            }
+    private void unindex(Entity entity) {
+        if (entitiesById.remove(entity.getId()) != null) {
+            entitiesByType.remove(entity);
+            if (entity instanceof Switch && ((Switch) entity).isActivated()) activeSwitches--;
         }
-        return res;
+    }
+
+    /**
+     * Called by a switch on this map whenever it is activated or deactivated
+     */
+    public void onSwitchChanged(Switch s) {
+        if (entitiesById.get(s.getId()) != s) return;
+        activeSwitches += s.isActivated() ? 1 : -1;
+    }
+
+    public int countActiveSwitches() {
+        return activeSwitches;
+    }
+
+    /**
+     * The cost of moving through the cell at p
+     */
+    public int getWeight(Position p) {
+        GraphNode node = nodes.get(p);
+        return (node == null) ? 1 : node.getWeight();
+    }
+
+    public Entity getEntity(String id) {
+        return entitiesById.get(id);
     }
 
     public List<Entity> getEntities(Position p) {
@@ -244,16 +264,23 @@ public class GameMap implements Serializable {
 
     public List<Entity> getEntities() {
         List<Entity> entities = new ArrayList<>();
-        nodes.forEach((k, v) -> entities.addAll(v.getEntities()));
+        nodes.forEach(v -> entities.addAll(v.getEntities()));
         return entities;
     }
 
+    /**
+     * Visit every occupied cell, in the order getEntities lists their entities
+     */
+    public void forEachNode(Consumer<GraphNode> action) {
+        nodes.forEach(action);
+    }
+
     public <T extends Entity> List<T> getEntities(Class<T> type) {
-        return getEntities().stream().filter(type::isInstance).map(type::cast).collect(Collectors.toList());
+        return entitiesByType.get(type);
     }
 
     public <T extends Entity> long countEntities(Class<T> type) {
-        return getEntities().stream().filter(type::isInstance).count();
+        return entitiesByType.count(type);
     }
 
     public Player getPlayer() {
@@ -279,4 +306,36 @@ public class GameMap implements Serializable {
     public void setGame(Game game) {
         this.game = game;
     }
+
+    // the indexes and fields are derived from the nodes, so rebuild them rather than persisting them
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        entitiesById = new HashMap<>();
+        entitiesByType = new TypeIndex<>();
+        playerFields = new HashMap<>();
+        activeSwitches = 0;
+        nodes.forEach(node -> node.getEntities().forEach(this::index));
+    }
+
+    /**
+     * Layout -- a map's bounds and how many entities of each type it holds.
+     * Holds nothing of the map itself, so it can outlive it.
+     */
+    public static final class Layout {
+        private final int minX;
+        private final int minY;
+        private final int width;
+        private final int height;
+        private final int entities;
+        private final Map<Class<?>, Integer> types;
+
+        private Layout(int minX, int minY, int width, int height, int entities, Map<Class<?>, Integer> types) {
+            this.minX = minX;
+            this.minY = minY;
+            this.width = width;
+            this.height = height;
+            this.entities = entities;
+            this.types = types;
+        }
+    }
 }
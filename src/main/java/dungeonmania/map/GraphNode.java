@@ -5,6 +5,7 @@ import java.util.List;
 import java.io.Serializable;
 
 import dungeonmania.entities.Entity;
+import dungeonmania.entities.Portal;
 import dungeonmania.util.Position;
 
 public class GraphNode implements Serializable {
@@ -13,6 +14,10 @@ public class GraphNode implements Serializable {
 
     private int weight = 1;
 
+    // walkability per MoverCategory, one bit each; only bits set in known are valid
+    private transient int known = 0;
+    private transient int walkable = 0;
+
     public GraphNode(Entity entity, int weight) {
         this(entity, entity.getPosition(), weight);
     }
@@ -28,7 +33,41 @@ public class GraphNode implements Serializable {
     }
 
     public boolean canMoveOnto(GameMap map, Entity entity) {
-        return entities.size() == 0 || entities.stream().allMatch(e -> e.canMoveOnto(map, entity));
+        MoverCategory category = MoverCategory.of(entity);
+        if (!category.isCacheable()) return computeCanMoveOnto(map, entity);
+
+        int mask = category.getMask();
+        if ((known & mask) == 0) {
+            // portals answer based on the cells around their pair, which this node can't track
+            if (hasPortal()) return computeCanMoveOnto(map, entity);
+            if (computeCanMoveOnto(map, entity))
+                walkable |= mask;
+            else
+                walkable &= ~mask;
+            known |= mask;
+        }
+        return (walkable & mask) != 0;
+    }
+
+    private boolean computeCanMoveOnto(GameMap map, Entity entity) {
+        for (int i = 0; i < entities.size(); i++) {
+            if (!entities.get(i).canMoveOnto(map, entity)) return false;
+        }
+        return true;
+    }
+
+    private boolean hasPortal() {
+        for (int i = 0; i < entities.size(); i++) {
+            if (entities.get(i) instanceof Portal) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Forget cached walkability, for when an entity in this node changes state
+     */
+    public void invalidate() {
+        known = 0;
     }
 
     public int getWeight() {
@@ -36,12 +75,14 @@ public class GraphNode implements Serializable {
     }
 
     public void addEntity(Entity entity) {
-        if (!this.entities.contains(entity))
+        if (!this.entities.contains(entity)) {
             this.entities.add(entity);
+            invalidate();
+        }
     }
 
     public void removeEntity(Entity entity) {
-        entities.remove(entity);
+        if (entities.remove(entity)) invalidate();
     }
 
     public int size() {
@@ -0,0 +1,56 @@
+package dungeonmania.map;
+
+import dungeonmania.entities.Boulder;
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.Player;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.entities.enemies.Spider;
+import dungeonmania.entities.enemies.ZombieToast;
+
+/**
+ * MoverCategory -- groups of movers that every entity treats alike in canMoveOnto.
+ * Walkability for a category depends only on the entities in the cell, so
+ * GraphNode can cache it until those entities change.
+ * The player is never cached: doors and boulders answer it based on its
+ * inventory and facing.
+ */
+public enum MoverCategory {
+    PLAYER(false),
+    MERCENARY(true),
+    SPIDER(true),
+    ZOMBIE(true),
+    BOULDER(true),
+    OTHER(false);
+
+    private static final ClassValue<MoverCategory> CATEGORIES = new ClassValue<MoverCategory>() {
+        @Override
+        protected MoverCategory computeValue(Class<?> type) {
+            if (Player.class.isAssignableFrom(type)) return PLAYER;
+            if (Mercenary.class.isAssignableFrom(type)) return MERCENARY;
+            if (Spider.class.isAssignableFrom(type)) return SPIDER;
+            if (ZombieToast.class.isAssignableFrom(type)) return ZOMBIE;
+            if (Boulder.class.isAssignableFrom(type)) return BOULDER;
+            return OTHER;
+        }
+    };
+
+    private final boolean cacheable;
+    private final int mask;
+
+    MoverCategory(boolean cacheable) {
+        this.cacheable = cacheable;
+        this.mask = 1 << ordinal();
+    }
+
+    public static MoverCategory of(Entity entity) {
+        return CATEGORIES.get(entity.getClass());
+    }
+
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    public int getMask() {
+        return mask;
+    }
+}
@@ -0,0 +1,174 @@
+package dungeonmania.map;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import dungeonmania.util.Position;
+
+/**
+ * NodeGrid -- a dense spatial store of GraphNodes.
+ * Nodes live in a single bounding-box sized array indexed by the packed
+ * (x, y) offset from the top-left corner, so lookups never hash or box.
+ * The box grows on demand when a node is placed outside the current bounds.
+ */
+public class NodeGrid implements Iterable<GraphNode>, Serializable {
+    private static final int INITIAL_SIZE = 16;
+
+    private int minX = 0;
+    private int minY = 0;
+    private int width = 0;
+    private int height = 0;
+    private int size = 0;
+    private GraphNode[] cells = new GraphNode[0];
+
+    public NodeGrid() {
+    }
+
+    /**
+     * An empty grid with the given bounds, as another grid's getters report them
+     */
+    public NodeGrid(int minX, int minY, int width, int height) {
+        this.minX = minX;
+        this.minY = minY;
+        this.width = width;
+        this.height = height;
+        this.cells = new GraphNode[width * height];
+    }
+
+    public GraphNode get(Position p) {
+        return get(p.getX(), p.getY());
+    }
+
+    public GraphNode get(int x, int y) {
+        int dx = x - minX;
+        int dy = y - minY;
+        if (dx < 0 || dy < 0 || dx >= width || dy >= height) return null;
+        return cells[dy * width + dx];
+    }
+
+    public boolean contains(Position p) {
+        return get(p) != null;
+    }
+
+    public void put(GraphNode node) {
+        Position p = node.getPosition();
+        ensureBounds(p.getX(), p.getY());
+        int index = indexOf(p.getX(), p.getY());
+        if (cells[index] == null) size++;
+        cells[index] = node;
+    }
+
+    public GraphNode remove(Position p) {
+        GraphNode node = get(p);
+        if (node != null) {
+            cells[indexOf(p.getX(), p.getY())] = null;
+            size--;
+        }
+        return node;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Visit every node in row-major order
+     */
+    @Override
+    public void forEach(Consumer<? super GraphNode> action) {
+        if (size == 0) return;
+        for (GraphNode node : cells) {
+            if (node != null) action.accept(node);
+        }
+    }
+
+    @Override
+    public Iterator<GraphNode> iterator() {
+        return new Iterator<GraphNode>() {
+            private int next = advance(0);
+
+            private int advance(int from) {
+                while (from < cells.length && cells[from] == null) from++;
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < cells.length;
+            }
+
+            @Override
+            public GraphNode next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                GraphNode node = cells[next];
+                next = advance(next + 1);
+                return node;
+            }
+        };
+    }
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    private int indexOf(int x, int y) {
+        return (y - minY) * width + (x - minX);
+    }
+
+    private void ensureBounds(int x, int y) {
+        if (width == 0) {
+            minX = x - INITIAL_SIZE / 2;
+            minY = y - INITIAL_SIZE / 2;
+            width = INITIAL_SIZE;
+            height = INITIAL_SIZE;
+            cells = new GraphNode[width * height];
+            return;
+        }
+        if (x >= minX && y >= minY && x < minX + width && y < minY + height) return;
+
+        // grow geometrically towards the side that overflowed so repeated expansion stays amortised O(1)
+        int newMinX = minX;
+        int newMinY = minY;
+        int newWidth = width;
+        int newHeight = height;
+        if (x < newMinX) {
+            int grow = Math.max(newMinX - x, newWidth);
+            newMinX -= grow;
+            newWidth += grow;
+        } else if (x >= newMinX + newWidth) {
+            newWidth += Math.max(x - (newMinX + newWidth) + 1, newWidth);
+        }
+        if (y < newMinY) {
+            int grow = Math.max(newMinY - y, newHeight);
+            newMinY -= grow;
+            newHeight += grow;
+        } else if (y >= newMinY + newHeight) {
+            newHeight += Math.max(y - (newMinY + newHeight) + 1, newHeight);
+        }
+
+        GraphNode[] newCells = new GraphNode[newWidth * newHeight];
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(cells, row * width,
+                newCells, (row + minY - newMinY) * newWidth + (minX - newMinX), width);
+        }
+        minX = newMinX;
+        minY = newMinY;
+        width = newWidth;
+        height = newHeight;
+        cells = newCells;
+    }
+}
@@ -0,0 +1,211 @@
+package dungeonmania.map;
+
+import java.util.Arrays;
+import java.util.List;
+
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.Portal;
+import dungeonmania.util.Position;
+
+/**
+ * PathFinder -- A* search over the cells of a GameMap.
+ * The search is confined to the node grid's bounding box plus a one cell
+ * border; any detour further out can be clamped onto that border without
+ * getting longer, so shortest paths are unchanged.
+ * The heuristic is the Manhattan distance, relaxed through the nearest portal
+ * so it stays admissible and consistent when teleporting is a shortcut.
+ * All per-cell state lives in int arrays that are reused between searches and
+ * invalidated with a generation stamp, so a search allocates nothing once the
+ * buffers are large enough.
+ */
+public class PathFinder {
+    public static final int MAX_COST = 200;
+    private static final int NONE = -1;
+
+    // cardinal offsets, in the same order as Position.getCardinallyAdjacentPositions
+    private static final int[] CARDINAL_X = {0, 1, 0, -1};
+    private static final int[] CARDINAL_Y = {-1, 0, 1, 0};
+    // offsets of the cells around a portal, in the same order as Position.getAdjacentPositions
+    private static final int[] ADJACENT_X = {-1, 0, 1, 1, 1, 0, -1, -1};
+    private static final int[] ADJACENT_Y = {-1, -1, -1, 0, 1, 1, 1, 0};
+
+    private final GameMap map;
+    private final NodeGrid nodes;
+
+    private int originX;
+    private int originY;
+    private int width;
+    private int height;
+
+    private int generation = 0;
+    private int[] seen = new int[0];
+    private int[] closed = new int[0];
+    private int[] cost = new int[0];
+    private int[] estimate = new int[0];
+    private int[] skew = new int[0];
+    private int[] parent = new int[0];
+    private CellHeap queue = new CellHeap();
+
+    private Portal[] portals = new Portal[0];
+    private int portalCount = 0;
+    private int[] portalX = new int[0];
+    private int[] portalY = new int[0];
+    private int portalBound;
+
+    public PathFinder(GameMap map, NodeGrid nodes) {
+        this.map = map;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Find the first step on a cheapest path from src to dest for the given entity.
+     * Stepping next to a portal may return a cell beside its pair.
+     * @return the position to move to, or src if dest is unreachable within the cost limit
+     */
+    public Position nextStep(Position src, Position dest, Entity entity) {
+        // if inputs are invalid, don't move
+        if (!nodes.contains(src) || !nodes.contains(dest) || src.equals(dest))
+            return src;
+
+        prepare();
+        loadPortals(dest);
+
+        int source = indexOf(src.getX(), src.getY());
+        int target = indexOf(dest.getX(), dest.getY());
+        open(source, 0, NONE, dest);
+
+        while (!queue.isEmpty()) {
+            int curr = queue.poll();
+            if (curr == target) break;
+            closed[curr] = generation;
+
+            int x = originX + curr % width;
+            int y = originY + curr / width;
+            GraphNode node = nodes.get(x, y);
+            Position pair = (node == null) ? null : pairOf(node);
+            if (pair != null) {
+                // stepping onto a portal lands beside its pair at no extra cost
+                int via = (curr == source) ? source : parent[curr];
+                for (int i = 0; i < ADJACENT_X.length; i++) {
+                    relax(pair.getX() + ADJACENT_X[i], pair.getY() + ADJACENT_Y[i], cost[curr], via, dest, entity);
+                }
+                continue;
+            }
+            for (int i = 0; i < CARDINAL_X.length; i++) {
+                int nx = x + CARDINAL_X[i];
+                int ny = y + CARDINAL_Y[i];
+                GraphNode next = nodes.get(nx, ny);
+                relax(nx, ny, cost[curr] + (next == null ? 1 : next.getWeight()), curr, dest, entity);
+            }
+        }
+
+        if (seen[target] != generation || parent[target] == NONE) return src;
+        int step = target;
+        while (parent[step] != source) {
+            step = parent[step];
+        }
+        return Position.of(originX + step % width, originY + step / width);
+    }
+
+    private void relax(int x, int y, int newCost, int from, Position dest, Entity entity) {
+        if (x < originX || y < originY || x >= originX + width || y >= originY + height) return;
+        int cell = indexOf(x, y);
+        if (closed[cell] == generation) return;
+        if (seen[cell] == generation && newCost >= cost[cell]) return;
+        if (!map.canMoveTo(entity, x, y)) return;
+        open(cell, newCost, from, dest);
+    }
+
+    private void open(int cell, int newCost, int from, Position dest) {
+        if (seen[cell] != generation) {
+            seen[cell] = generation;
+            int x = originX + cell % width;
+            int y = originY + cell / width;
+            estimate[cell] = heuristic(x, y, dest);
+            skew[cell] = Math.max(Math.abs(x - dest.getX()), Math.abs(y - dest.getY()));
+        }
+        // the heuristic never overestimates, so anything past the limit here can't reach dest within it
+        if (newCost + estimate[cell] > MAX_COST) return;
+        cost[cell] = newCost;
+        parent[cell] = from;
+        // order by estimated total cost, preferring cells closer to dest on ties
+        // and then cells that close the longer axis first, which keeps paths straight
+        long f = newCost + estimate[cell];
+        queue.offer(cell, f << 42 | (long) estimate[cell] << 21 | skew[cell]);
+    }
+
+    private int heuristic(int x, int y, Position dest) {
+        int h = Math.abs(x - dest.getX()) + Math.abs(y - dest.getY());
+        for (int i = 0; i < portalCount && portalBound < h; i++) {
+            h = Math.min(h, Math.abs(x - portalX[i]) + Math.abs(y - portalY[i]) + portalBound);
+        }
+        return h;
+    }
+
+    private Position pairOf(GraphNode node) {
+        List<Entity> entities = node.getEntities();
+        for (int i = 0; i < entities.size(); i++) {
+            Entity e = entities.get(i);
+            if (e instanceof Portal) return ((Portal) e).getPairPosition();
+        }
+        return null;
+    }
+
+    /**
+     * Size the window to the current grid and start a new generation
+     */
+    private void prepare() {
+        originX = nodes.getMinX() - 1;
+        originY = nodes.getMinY() - 1;
+        width = nodes.getWidth() + 2;
+        height = nodes.getHeight() + 2;
+        int area = width * height;
+        if (area > seen.length) {
+            int capacity = Math.max(area, seen.length * 2);
+            seen = new int[capacity];
+            closed = new int[capacity];
+            cost = new int[capacity];
+            estimate = new int[capacity];
+            skew = new int[capacity];
+            parent = new int[capacity];
+            generation = 0;
+        }
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 0;
+        }
+        generation++;
+        queue.reset(area);
+    }
+
+    /**
+     * Collect the paired portals and the cheapest possible remaining cost after
+     * teleporting, which is at least the distance from a pair to dest less two.
+     * Portals are never created or destroyed mid-game, so the list is only
+     * re-read when the count changes.
+     */
+    private void loadPortals(Position dest) {
+        if (map.countEntities(Portal.class) != portals.length)
+            portals = map.getEntities(Portal.class).toArray(new Portal[0]);
+        if (portals.length > portalX.length) {
+            portalX = new int[portals.length];
+            portalY = new int[portals.length];
+        }
+        portalCount = 0;
+        portalBound = Integer.MAX_VALUE;
+        for (Portal portal : portals) {
+            Position pair = portal.getPairPosition();
+            if (pair == null) continue;
+            portalX[portalCount] = portal.getPosition().getX();
+            portalY[portalCount] = portal.getPosition().getY();
+            int toDest = Math.abs(pair.getX() - dest.getX()) + Math.abs(pair.getY() - dest.getY());
+            portalBound = Math.min(portalBound, Math.max(0, toDest - 2));
+            portalCount++;
+        }
+    }
+
+    private int indexOf(int x, int y) {
+        return (y - originY) * width + (x - originX);
+    }
+}
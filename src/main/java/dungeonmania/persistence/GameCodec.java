@@ -0,0 +1,206 @@
+package dungeonmania.persistence;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.json.JSONObject;
+
+import dungeonmania.Game;
+import dungeonmania.battles.BattleFacade;
+import dungeonmania.battles.BattleLog;
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.EntityFactory;
+import dungeonmania.entities.Player;
+import dungeonmania.goals.Goal;
+import dungeonmania.goals.GoalFactory;
+import dungeonmania.map.GameMap;
+import dungeonmania.map.GraphNode;
+import dungeonmania.response.models.BattleResponse;
+import dungeonmania.response.models.ItemResponse;
+import dungeonmania.response.models.RoundResponse;
+
+/**
+ * GameCodec -- turns a game into a tree of records and back.
+ * Only state is saved. The config is kept as its JSON, goals as their
+ * goal-condition JSON, and each entity as a record of its own fields. Scheduler
+ * callbacks are saved as their ids in run order and rebuilt from the entities
+ * they belong to, so nothing in a save depends on how a class is compiled.
+ */
+public final class GameCodec {
+    private GameCodec() {
+    }
+
+    public static SaveRecord toRecord(Game game) {
+        return toRecord(game, GameCodec::entityRecord, null);
+    }
+
+    /**
+     * As toRecord, with each entity's record supplied by entityRecords, given the
+     * entity and its cell's weight. The previous record's battle log is reused if
+     * no battle has been fought and the sink hasn't changed since.
+     */
+    static SaveRecord toRecord(Game game, EntityRecords entityRecords, SaveRecord previous) {
+        GameMap map = game.getMap();
+        Player player = game.getPlayer();
+        boolean playerOnMap = player != null && map.getEntity(player.getId()) == player;
+        Goal goals = game.getGoals();
+        BattleLog log = game.getBattleFacade().getBattleLog();
+        SaveRecord battleLog = (previous == null) ? null : previous.getRecord("battle_log");
+        if (battleLog == null || battleLog.getLong("cursor", -1) != log.getCursor()
+                || battleLog.getInt("retention", -1) != log.getRetention()
+                || !Objects.equals(battleLog.getString("sink", null), log.getSink()))
+            battleLog = toRecord(log);
+
+        return new SaveRecord("game")
+            .put("id", game.getId())
+            .put("name", game.getName())
+            .put("tick", game.getTick())
+            .put("initial_treasure", game.getInitialTreasureCount())
+            .put("initial_sun_stones", game.getInitialSunStoneCount())
+            .put("config", game.getEntityFactory().getConfig().getSource())
+            .put("goals", (goals == null) ? null : goals.toJson().toString())
+            .put("battle_log", battleLog)
+            .putRecords("entities", entityRecords(map, entityRecords))
+            .put("player", (player == null || playerOnMap) ? null : SaveRecord.of(player))
+            .putStrings("callbacks", game.getCallbackIds());
+    }
+
+    /**
+     * EntityRecords -- where the record for each entity on the map comes from.
+     */
+    interface EntityRecords {
+        SaveRecord get(Entity entity, int cellWeight);
+    }
+
+    // the first entity in a cell creates its node, so it carries the cell's weight if that isn't the usual 1
+    private static List<SaveRecord> entityRecords(GameMap map, EntityRecords entityRecords) {
+        List<SaveRecord> records = new ArrayList<>();
+        map.forEachNode(node -> {
+            List<Entity> entities = node.getEntities();
+            for (int i = 0; i < entities.size(); i++) {
+                records.add(entityRecords.get(entities.get(i), (i == 0) ? node.getWeight() : 1));
+            }
+        });
+        return records;
+    }
+
+    static SaveRecord entityRecord(Entity entity, int cellWeight) {
+        SaveRecord record = SaveRecord.of(entity);
+        if (cellWeight != 1) record.put("cell_weight", cellWeight);
+        return record;
+    }
+
+    public static Game fromRecord(SaveRecord record) throws IOException {
+        JSONObject config = new JSONObject(record.getString("config", "{}"));
+        Game game = new Game(record.getString("name", null));
+        game.setId(record.getString("id", null));
+        EntityFactory factory = new EntityFactory(config);
+        game.setEntityFactory(factory);
+        game.setBattleFacade(readBattleFacade(record.getRecord("battle_log"), factory));
+
+        GameMap map = new GameMap();
+        map.setGame(game);
+        game.setMap(map);
+
+        // construct everything first so entities can refer to each other by id while reading their state
+        SaveContext context = new SaveContext(factory);
+        List<SaveRecord> records = record.getRecords("entities");
+        List<Entity> entities = new ArrayList<>(records.size());
+        for (SaveRecord r : records) {
+            Entity e = context.construct(r);
+            if (e == null) throw new IOException("Unknown entity type " + r.getType());
+            entities.add(e);
+        }
+        for (int i = 0; i < entities.size(); i++) {
+            entities.get(i).readState(records.get(i), context);
+        }
+        for (int i = 0; i < entities.size(); i++) {
+            Entity e = entities.get(i);
+            map.addNode(new GraphNode(e, records.get(i).getInt("cell_weight", 1)));
+            if (e instanceof Player) map.setPlayer((Player) e);
+        }
+        SaveRecord deadPlayer = record.getRecord("player");
+        if (deadPlayer != null) map.setPlayer((Player) context.create(deadPlayer));
+        game.setPlayer(map.getPlayer());
+
+        game.setTick(record.getInt("tick", 0));
+        game.setInitialTreasureCount(record.getInt("initial_treasure", 0));
+        game.setInitialSunStoneCount(record.getInt("initial_sun_stones", 0));
+        String goals = record.getString("goals", null);
+        if (goals != null) game.setGoals(GoalFactory.createGoal(new JSONObject(goals), factory.getConfig()));
+
+        for (String id : record.getStrings("callbacks")) {
+            game.restoreCallback(id);
+        }
+        return game;
+    }
+
+    private static SaveRecord toRecord(BattleLog log) {
+        List<SaveRecord> battles = new ArrayList<>();
+        for (BattleResponse battle : log.getRecent()) {
+            List<SaveRecord> items = new ArrayList<>();
+            for (ItemResponse item : battle.getBattleItems()) {
+                items.add(new SaveRecord(item.getType()).put("id", item.getId()));
+            }
+            battles.add(new SaveRecord("battle")
+                .put("enemy", battle.getEnemy())
+                .put("initial_player_health", battle.getInitialPlayerHealth())
+                .put("initial_enemy_health", battle.getInitialEnemyHealth())
+                .putRecords("items", items)
+                .putRecords("rounds", roundRecords(battle.getRounds())));
+        }
+        return new SaveRecord("battle_log")
+            .put("retention", log.getRetention())
+            .put("cursor", log.getCursor())
+            .put("sink", log.getSink())
+            .putRecords("battles", battles);
+    }
+
+    // every round of a battle usually deals the same damage, so runs of equal rounds are saved once with a count
+    private static List<SaveRecord> roundRecords(List<RoundResponse> rounds) {
+        List<SaveRecord> records = new ArrayList<>();
+        for (int i = 0; i < rounds.size();) {
+            RoundResponse round = rounds.get(i);
+            int run = 1;
+            while (i + run < rounds.size()
+                    && rounds.get(i + run).getDeltaCharacterHealth() == round.getDeltaCharacterHealth()
+                    && rounds.get(i + run).getDeltaEnemyHealth() == round.getDeltaEnemyHealth()) {
+                run++;
+            }
+            records.add(new SaveRecord("round")
+                .put("player", round.getDeltaCharacterHealth())
+                .put("enemy", round.getDeltaEnemyHealth())
+                .put("repeat", run));
+            i += run;
+        }
+        return records;
+    }
+
+    private static BattleFacade readBattleFacade(SaveRecord record, EntityFactory factory) {
+        int retention = factory.getConfig().getBattleLogRetention();
+        if (record == null) return new BattleFacade(retention);
+
+        BattleFacade facade = new BattleFacade(record.getInt("retention", retention));
+        List<BattleResponse> battles = new ArrayList<>();
+        for (SaveRecord battle : record.getRecords("battles")) {
+            List<ItemResponse> items = new ArrayList<>();
+            for (SaveRecord item : battle.getRecords("items")) {
+                items.add(new ItemResponse(item.getString("id", null), item.getType()));
+            }
+            List<RoundResponse> rounds = new ArrayList<>();
+            for (SaveRecord round : battle.getRecords("rounds")) {
+                int repeat = round.getInt("repeat", 1);
+                for (int i = 0; i < repeat; i++) {
+                    rounds.add(new RoundResponse(round.getDouble("player", 0), round.getDouble("enemy", 0)));
+                }
+            }
+            battles.add(new BattleResponse(battle.getString("enemy", ""), rounds, items,
+                battle.getDouble("initial_player_health", 0), battle.getDouble("initial_enemy_health", 0)));
+        }
+        facade.getBattleLog().restore(record.getLong("cursor", battles.size()), battles,
+            record.getString("sink", null));
+        return facade;
+    }
+}
@@ -0,0 +1,56 @@
+package dungeonmania.persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.EntityFactory;
+
+/**
+ * SaveContext -- what an entity needs while its state is read back from a save.
+ * Every entity on the map is constructed before any of them reads its state,
+ * so references to other entities can be resolved by id in any order.
+ */
+public class SaveContext {
+    private final EntityFactory factory;
+    private final Map<String, Entity> entities = new HashMap<>();
+
+    public SaveContext(EntityFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Construct an entity and read its state, for entities held by another, such as inventory items
+     */
+    public Entity create(SaveRecord record) {
+        Entity entity = construct(record);
+        if (entity != null) entity.readState(record, this);
+        return entity;
+    }
+
+    /**
+     * Construct an entity the way the dungeon loader would, without reading its state yet
+     * @return the entity, or null if the type is unknown
+     */
+    Entity construct(SaveRecord record) {
+        Entity entity = factory.createEntity(record.toEntityJson());
+        if (entity == null) entity = (Entity) factory.buildItem(record.getType());
+        if (entity != null) entities.put(record.getString("id", ""), entity);
+        return entity;
+    }
+
+    /**
+     * Make an entity that already exists resolvable by its id
+     */
+    public void register(Entity entity) {
+        entities.put(entity.getId(), entity);
+    }
+
+    /**
+     * @return the entity saved under id, or null if there isn't one of the given type
+     */
+    public <T extends Entity> T resolve(String id, Class<T> type) {
+        Entity entity = (id == null) ? null : entities.get(id);
+        return type.isInstance(entity) ? type.cast(entity) : null;
+    }
+}
@@ -0,0 +1,91 @@
+package dungeonmania.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import dungeonmania.Game;
+
+/**
+ * SaveFormat -- reads and writes save files.
+ * A save is a header followed by the game's record tree:
+ * <pre>
+ * "DMSV"   magic
+ * u16      format version
+ * u8       flags; bit 0 set if the body is deflated
+ * body     the game record, see SaveWriter
+ * </pre>
+ * A reader accepts any version up to its own. Fields are named, so adding one
+ * doesn't need a new version; changing how values are encoded does.
+ */
+public final class SaveFormat {
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'D', 'M', 'S', 'V'};
+    private static final int HEADER_SIZE = MAGIC.length + Short.BYTES + 1;
+    private static final byte DEFLATED = 1;
+
+    private SaveFormat() {
+    }
+
+    public static void write(Game game, Path path, boolean compress) throws IOException {
+        SaveRecord record = GameCodec.toRecord(game);
+        try (FileChannel file = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.put(MAGIC).putShort((short) VERSION).put(compress ? DEFLATED : (byte) 0).flip();
+            while (header.hasRemaining()) file.write(header);
+
+            WritableByteChannel body = compress
+                ? Channels.newChannel(new DeflaterOutputStream(Channels.newOutputStream(file)))
+                : file;
+            SaveWriter writer = new SaveWriter(body);
+            writer.writeRecord(record);
+            writer.flush();
+            // closing the deflating channel finishes the stream
+            if (compress) body.close();
+        }
+    }
+
+    /**
+     * @throws IOException if the file can't be read or doesn't hold a game this version can load
+     */
+    public static Game read(Path path) throws IOException {
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && file.read(header) >= 0) continue;
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || !hasMagic(header))
+                throw new IOException(path.getFileName() + " is not a save file");
+            int version = header.getShort() & 0xFFFF;
+            if (version > VERSION)
+                throw new IOException(String.format("Save format version %d is newer than this game's %d",
+                    version, VERSION));
+            boolean deflated = (header.get() & DEFLATED) != 0;
+
+            ReadableByteChannel body = deflated
+                ? Channels.newChannel(new InflaterInputStream(Channels.newInputStream(file)))
+                : file;
+            try {
+                return GameCodec.fromRecord(new SaveReader(body).readRecord());
+            } catch (RuntimeException e) {
+                // a body that decodes but doesn't hold a game, such as a field of the wrong type
+                throw new IOException(path.getFileName() + " is not a valid save: " + e, e);
+            }
+        }
+    }
+
+    private static boolean hasMagic(ByteBuffer header) {
+        for (byte b : MAGIC) {
+            if (header.get() != b) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,156 @@
+package dungeonmania.persistence;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import dungeonmania.util.Position;
+
+/**
+ * SaveReader -- decodes records written by a SaveWriter, refilling one buffer from a channel.
+ * A corrupt body is reported as an IOException. Lengths and counts in it are
+ * never trusted for allocating more than has actually been read.
+ */
+public class SaveReader {
+    private static final int BUFFER_SIZE = 8192;
+    // records nest only a few deep, so anything past this is corrupt rather than a deep game
+    private static final int MAX_DEPTH = 64;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final List<String> strings = new ArrayList<>();
+    private int depth = 0;
+
+    public SaveReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.flip();
+    }
+
+    public SaveRecord readRecord() throws IOException {
+        if (depth >= MAX_DEPTH) throw new IOException("Records nested more than " + MAX_DEPTH + " deep");
+        depth++;
+        SaveRecord record = readFields(new SaveRecord(readString()));
+        depth--;
+        return record;
+    }
+
+    private SaveRecord readFields(SaveRecord record) throws IOException {
+        int count = readLength();
+        for (int i = 0; i < count; i++) {
+            String name = readString();
+            byte type = readByte();
+            switch (type) {
+            case SaveRecord.INT:
+                record.put(name, readInt());
+                break;
+            case SaveRecord.LONG:
+                record.put(name, readLong());
+                break;
+            case SaveRecord.DOUBLE:
+                require(Double.BYTES);
+                record.put(name, buffer.getDouble());
+                break;
+            case SaveRecord.BOOLEAN:
+                record.put(name, readByte() != 0);
+                break;
+            case SaveRecord.STRING:
+                record.put(name, (Object) readString());
+                break;
+            case SaveRecord.POSITION:
+                record.put(name, (Object) Position.of(readInt(), readInt(), readInt()));
+                break;
+            case SaveRecord.RECORD:
+                record.put(name, (Object) readRecord());
+                break;
+            case SaveRecord.RECORD_LIST:
+                int records = readLength();
+                List<SaveRecord> list = new ArrayList<>(Math.min(records, BUFFER_SIZE));
+                for (int j = 0; j < records; j++) list.add(readRecord());
+                record.putRecords(name, list);
+                break;
+            case SaveRecord.STRING_LIST:
+                int size = readLength();
+                List<String> values = new ArrayList<>(Math.min(size, BUFFER_SIZE));
+                for (int j = 0; j < size; j++) values.add(readString());
+                record.putStrings(name, values);
+                break;
+            default:
+                throw new IOException(String.format("Unknown field type %d for %s", type, name));
+            }
+        }
+        return record;
+    }
+
+    private String readString() throws IOException {
+        int index = readUnsigned();
+        if (index > 0) {
+            if (index > strings.size()) throw new IOException("Bad string reference " + index);
+            return strings.get(index - 1);
+        }
+        int length = readLength();
+        // grown as bytes arrive, so a corrupt length runs out of file rather than memory
+        byte[] bytes = new byte[Math.min(length, BUFFER_SIZE)];
+        for (int offset = 0; offset < length;) {
+            if (!buffer.hasRemaining()) fill();
+            if (offset == bytes.length) bytes = Arrays.copyOf(bytes, (int) Math.min(2L * offset, length));
+            int n = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.get(bytes, offset, n);
+            offset += n;
+        }
+        String s = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(s);
+        return s;
+    }
+
+    private int readInt() throws IOException {
+        int v = readUnsigned();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private long readLong() throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return (v >>> 1) ^ -(v & 1);
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private int readLength() throws IOException {
+        int length = readUnsigned();
+        if (length < 0) throw new IOException("Negative length " + length);
+        return length;
+    }
+
+    private int readUnsigned() throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = readByte();
+            v |= (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private byte readByte() throws IOException {
+        require(1);
+        return buffer.get();
+    }
+
+    private void require(int bytes) throws IOException {
+        while (buffer.remaining() < bytes) fill();
+    }
+
+    private void fill() throws IOException {
+        buffer.compact();
+        int n = channel.read(buffer);
+        buffer.flip();
+        if (n < 0) throw new EOFException("Save file ends early");
+    }
+}
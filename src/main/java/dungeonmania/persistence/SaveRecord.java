@@ -0,0 +1,280 @@
+package dungeonmania.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+import org.json.JSONObject;
+
+import dungeonmania.entities.Entity;
+import dungeonmania.util.NameConverter;
+import dungeonmania.util.Position;
+
+/**
+ * SaveRecord -- one object in a save file: a type name and a set of named, typed fields.
+ * Fields are looked up by name and every getter takes a default, so a class can
+ * gain or lose fields without breaking saves written before the change.
+ */
+public final class SaveRecord {
+    static final byte INT = 1;
+    static final byte LONG = 2;
+    static final byte DOUBLE = 3;
+    static final byte BOOLEAN = 4;
+    static final byte STRING = 5;
+    static final byte POSITION = 6;
+    static final byte RECORD = 7;
+    static final byte RECORD_LIST = 8;
+    static final byte STRING_LIST = 9;
+
+    private final String type;
+    private final Map<String, Object> fields = new LinkedHashMap<>();
+
+    public SaveRecord(String type) {
+        this.type = type;
+    }
+
+    /**
+     * A record of the entity's saved state, typed by the entity's base type name
+     */
+    public static SaveRecord of(Entity entity) {
+        SaveRecord record = new SaveRecord(NameConverter.toSnakeCase(entity.getClass()));
+        entity.writeState(record);
+        return record;
+    }
+
+    public static List<SaveRecord> of(Collection<? extends Entity> entities) {
+        List<SaveRecord> records = new ArrayList<>(entities.size());
+        for (Entity entity : entities) {
+            records.add(of(entity));
+        }
+        return records;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    Map<String, Object> getFields() {
+        return fields;
+    }
+
+    public SaveRecord put(String name, int value) {
+        fields.put(name, value);
+        return this;
+    }
+
+    public SaveRecord put(String name, long value) {
+        fields.put(name, value);
+        return this;
+    }
+
+    public SaveRecord put(String name, double value) {
+        fields.put(name, value);
+        return this;
+    }
+
+    public SaveRecord put(String name, boolean value) {
+        fields.put(name, value);
+        return this;
+    }
+
+    /**
+     * Put a string, position or record field. Null values are left out.
+     */
+    public SaveRecord put(String name, Object value) {
+        if (value == null) return this;
+        if (!(value instanceof String || value instanceof Position || value instanceof SaveRecord))
+            throw new IllegalArgumentException("Can't save a field of type " + value.getClass());
+        fields.put(name, value);
+        return this;
+    }
+
+    public SaveRecord putRecords(String name, List<SaveRecord> records) {
+        fields.put(name, new RecordList(records));
+        return this;
+    }
+
+    public SaveRecord putStrings(String name, List<String> strings) {
+        fields.put(name, new StringList(strings));
+        return this;
+    }
+
+    public boolean has(String name) {
+        return fields.containsKey(name);
+    }
+
+    public int getInt(String name, int defaultValue) {
+        Object value = fields.get(name);
+        return (value instanceof Integer) ? (Integer) value : defaultValue;
+    }
+
+    public long getLong(String name, long defaultValue) {
+        Object value = fields.get(name);
+        return (value instanceof Long) ? (Long) value : defaultValue;
+    }
+
+    public double getDouble(String name, double defaultValue) {
+        Object value = fields.get(name);
+        return (value instanceof Double) ? (Double) value : defaultValue;
+    }
+
+    public boolean getBoolean(String name, boolean defaultValue) {
+        Object value = fields.get(name);
+        return (value instanceof Boolean) ? (Boolean) value : defaultValue;
+    }
+
+    public String getString(String name, String defaultValue) {
+        Object value = fields.get(name);
+        return (value instanceof String) ? (String) value : defaultValue;
+    }
+
+    public Position getPosition(String name, Position defaultValue) {
+        Object value = fields.get(name);
+        return (value instanceof Position) ? (Position) value : defaultValue;
+    }
+
+    public SaveRecord getRecord(String name) {
+        Object value = fields.get(name);
+        return (value instanceof SaveRecord) ? (SaveRecord) value : null;
+    }
+
+    /**
+     * @return the records under name, or an empty list if there are none
+     */
+    public List<SaveRecord> getRecords(String name) {
+        Object value = fields.get(name);
+        return (value instanceof RecordList) ? ((RecordList) value).records : Collections.emptyList();
+    }
+
+    /**
+     * @return the strings under name, or an empty list if there are none
+     */
+    public List<String> getStrings(String name) {
+        Object value = fields.get(name);
+        return (value instanceof StringList) ? ((StringList) value).strings : Collections.emptyList();
+    }
+
+    /**
+     * A deep copy of the record with every string field and string list element
+     * passed through ids, for giving the entities it describes new ids
+     */
+    public SaveRecord withIds(UnaryOperator<String> ids) {
+        SaveRecord copy = new SaveRecord(type);
+        fields.forEach((name, value) -> {
+            if (value instanceof String) {
+                value = ids.apply((String) value);
+            } else if (value instanceof SaveRecord) {
+                value = ((SaveRecord) value).withIds(ids);
+            } else if (value instanceof RecordList) {
+                List<SaveRecord> records = new ArrayList<>();
+                for (SaveRecord r : ((RecordList) value).records) {
+                    records.add(r.withIds(ids));
+                }
+                value = new RecordList(records);
+            } else if (value instanceof StringList) {
+                List<String> strings = new ArrayList<>();
+                for (String s : ((StringList) value).strings) {
+                    strings.add(ids.apply(s));
+                }
+                value = new StringList(strings);
+            }
+            copy.fields.put(name, value);
+        });
+        return copy;
+    }
+
+    /**
+     * The record as a dungeon file entity: its type, its position as x and y,
+     * and its int and string fields under their own names
+     */
+    public JSONObject toEntityJson() {
+        Position p = getPosition("position", null);
+        JSONObject json = new JSONObject()
+            .put("type", type)
+            .put("x", (p == null) ? 0 : p.getX())
+            .put("y", (p == null) ? 0 : p.getY());
+        fields.forEach((name, value) -> {
+            if (value instanceof Integer || value instanceof String) json.put(name, value);
+        });
+        return json;
+    }
+
+    /**
+     * Records are equal when their types and all their fields are. Positions
+     * must also be on the same layer.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || obj.getClass() != getClass()) return false;
+        SaveRecord other = (SaveRecord) obj;
+        if (!type.equals(other.type) || fields.size() != other.fields.size()) return false;
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            Object value = field.getValue();
+            Object otherValue = other.fields.get(field.getKey());
+            if (!Objects.equals(value, otherValue)) return false;
+            if (value instanceof Position && ((Position) value).getLayer() != ((Position) otherValue).getLayer())
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = type.hashCode();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            hash += field.getKey().hashCode() ^ field.getValue().hashCode();
+        }
+        return hash;
+    }
+
+    // lists are wrapped so a list of records and a list of strings can't be confused when read back
+    static final class RecordList {
+        private final List<SaveRecord> records;
+
+        RecordList(List<SaveRecord> records) {
+            this.records = new ArrayList<>(records);
+        }
+
+        List<SaveRecord> getRecords() {
+            return records;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof RecordList && records.equals(((RecordList) obj).records);
+        }
+
+        @Override
+        public int hashCode() {
+            return records.hashCode();
+        }
+    }
+
+    static final class StringList {
+        private final List<String> strings;
+
+        StringList(List<String> strings) {
+            this.strings = new ArrayList<>(strings);
+        }
+
+        List<String> getStrings() {
+            return strings;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof StringList && strings.equals(((StringList) obj).strings);
+        }
+
+        @Override
+        public int hashCode() {
+            return strings.hashCode();
+        }
+    }
+}
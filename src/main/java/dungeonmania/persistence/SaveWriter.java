@@ -0,0 +1,140 @@
+package dungeonmania.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import dungeonmania.util.Position;
+
+/**
+ * SaveWriter -- encodes records into a channel through one reusable buffer.
+ * Integers are zigzag varints, so small values of either sign take a byte.
+ * Each distinct string is written once; later uses refer back to it by index,
+ * which keeps repeated field names, type names and entity ids cheap.
+ */
+public class SaveWriter {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    public SaveWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    public void writeRecord(SaveRecord record) throws IOException {
+        writeString(record.getType());
+        writeUnsigned(record.getFields().size());
+        for (Map.Entry<String, Object> field : record.getFields().entrySet()) {
+            writeString(field.getKey());
+            writeValue(field.getValue());
+        }
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value instanceof Integer) {
+            writeByte(SaveRecord.INT);
+            writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            writeByte(SaveRecord.LONG);
+            writeLong((Long) value);
+        } else if (value instanceof Double) {
+            writeByte(SaveRecord.DOUBLE);
+            ensure(Double.BYTES);
+            buffer.putDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            writeByte(SaveRecord.BOOLEAN);
+            writeByte((Boolean) value ? (byte) 1 : (byte) 0);
+        } else if (value instanceof String) {
+            writeByte(SaveRecord.STRING);
+            writeString((String) value);
+        } else if (value instanceof Position) {
+            Position p = (Position) value;
+            writeByte(SaveRecord.POSITION);
+            writeInt(p.getX());
+            writeInt(p.getY());
+            writeInt(p.getLayer());
+        } else if (value instanceof SaveRecord) {
+            writeByte(SaveRecord.RECORD);
+            writeRecord((SaveRecord) value);
+        } else if (value instanceof SaveRecord.RecordList) {
+            writeByte(SaveRecord.RECORD_LIST);
+            SaveRecord.RecordList list = (SaveRecord.RecordList) value;
+            writeUnsigned(list.getRecords().size());
+            for (SaveRecord r : list.getRecords()) writeRecord(r);
+        } else {
+            writeByte(SaveRecord.STRING_LIST);
+            SaveRecord.StringList list = (SaveRecord.StringList) value;
+            writeUnsigned(list.getStrings().size());
+            for (String s : list.getStrings()) writeString(s);
+        }
+    }
+
+    // 0 starts a new string, n > 0 refers to the (n - 1)th string written
+    private void writeString(String s) throws IOException {
+        Integer index = strings.get(s);
+        if (index != null) {
+            writeUnsigned(index + 1);
+            return;
+        }
+        strings.put(s, strings.size());
+        writeUnsigned(0);
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeUnsigned(bytes.length);
+        for (int offset = 0; offset < bytes.length;) {
+            if (!buffer.hasRemaining()) drain();
+            int n = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, n);
+            offset += n;
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        writeUnsigned((value << 1) ^ (value >> 31));
+    }
+
+    private void writeLong(long value) throws IOException {
+        long v = (value << 1) ^ (value >> 63);
+        ensure(10);
+        while ((v & ~0x7FL) != 0) {
+            buffer.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buffer.put((byte) v);
+    }
+
+    private void writeUnsigned(int value) throws IOException {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void writeByte(byte b) throws IOException {
+        ensure(1);
+        buffer.put(b);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) drain();
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Write out whatever is still buffered
+     */
+    public void flush() throws IOException {
+        drain();
+    }
+}
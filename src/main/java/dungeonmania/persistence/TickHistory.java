@@ -0,0 +1,263 @@
+package dungeonmania.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dungeonmania.Game;
+import dungeonmania.entities.Entity;
+import dungeonmania.util.Position;
+
+/**
+ * TickHistory -- the game as it was at each of the last few ticks, for rewinding.
+ * Each snapshot is the game's save record, kept in a ring. A new snapshot
+ * reuses every part of the one before it that hasn't changed, down to single
+ * entities, so an unchanged wall or an untouched inventory is only held once
+ * however many ticks are kept. A retained tick costs roughly the records of
+ * what changed in it.
+ * <p>
+ * Snapshots are built incrementally too. Each entity's last record is kept
+ * with its change count and only written again once the entity reports a
+ * change, so a tick costs roughly the records of the entities that moved or
+ * changed, plus those that don't track their changes, such as the player.
+ */
+public class TickHistory {
+    public static final int DEFAULT_DEPTH = 30;
+
+    private final SaveRecord[] ring;
+    private final int[] ticks;
+    private int newest = -1;
+    private int size = 0;
+
+    // the game the records below were taken from; a rewound game has new entities
+    private Game recorded = null;
+    private Map<Entity, Recorded> records = new IdentityHashMap<>();
+    private int generation = 0;
+
+    /**
+     * @param depth how many ticks back the game can be rewound
+     */
+    public TickHistory(int depth) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Rewind history depth can't be negative");
+        // one extra slot holds the current tick
+        this.ring = new SaveRecord[depth + 1];
+        this.ticks = new int[depth + 1];
+    }
+
+    public int getDepth() {
+        return ring.length - 1;
+    }
+
+    /**
+     * Snapshot the game as it is now. A snapshot taken at a tick that is
+     * already held replaces it and everything after it.
+     */
+    public void record(Game game) {
+        if (getDepth() == 0) return;
+        int tick = game.getTick();
+        while (size > 0 && ticks[newest] >= tick) drop();
+        SaveRecord previous = (size == 0) ? null : ring[newest];
+        if (game != recorded) {
+            recorded = game;
+            records.clear();
+        }
+        generation++;
+        SaveRecord current = GameCodec.toRecord(game, this::entityRecord, previous);
+        // entities that have left the map are forgotten
+        if (records.size() > current.getRecords("entities").size())
+            records.values().removeIf(r -> r.generation != generation);
+        newest = (newest + 1) % ring.length;
+        ring[newest] = shareSnapshot(current, previous);
+        ticks[newest] = tick;
+        size = Math.min(size + 1, ring.length);
+    }
+
+    private SaveRecord entityRecord(Entity entity, int cellWeight) {
+        Recorded last = records.get(entity);
+        if (last != null && entity.tracksChanges() && last.changeCount == entity.getChangeCount()
+                && last.cellWeight == cellWeight) {
+            last.generation = generation;
+            return last.record;
+        }
+        SaveRecord record = GameCodec.entityRecord(entity, cellWeight);
+        // an entity that reported a change is mostly small fields that did change; others may well be unchanged
+        if (last != null && !entity.tracksChanges()) record = share(record, last.record);
+        records.put(entity, new Recorded(record, entity.getChangeCount(), cellWeight, generation));
+        return record;
+    }
+
+    /**
+     * @return how many ticks back the game can be rewound right now
+     */
+    public int available() {
+        return (size == 0) ? 0 : size - 1;
+    }
+
+    /**
+     * Rebuild the game as it was the given number of ticks before the newest snapshot.
+     * Later snapshots are dropped, so playing on from there starts a new history.
+     */
+    public Game rewind(int by) throws IllegalArgumentException {
+        if (by <= 0)
+            throw new IllegalArgumentException("Can only rewind a positive number of ticks");
+        if (getDepth() == 0)
+            throw new IllegalArgumentException("This game keeps no history; its config sets rewind_depth to 0");
+        if (by > available())
+            throw new IllegalArgumentException(String.format("Can't rewind %d ticks, only %d are kept",
+                by, available()));
+        for (int i = 0; i < by; i++) drop();
+        try {
+            return GameCodec.fromRecord(ring[newest]);
+        } catch (IOException e) {
+            // the record was built in memory from a live game, so this would be a codec bug
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    SaveRecord getSnapshot(int ticksAgo) {
+        if (ticksAgo < 0 || ticksAgo >= size) return null;
+        return ring[Math.floorMod(newest - ticksAgo, ring.length)];
+    }
+
+    private void drop() {
+        ring[newest] = null;
+        newest = Math.floorMod(newest - 1, ring.length);
+        size--;
+    }
+
+    /**
+     * As share, for a whole snapshot. Its entity records already come from the
+     * cache, each shared with the entity's last one, so the list is only
+     * checked for being the previous one over again.
+     */
+    private static SaveRecord shareSnapshot(SaveRecord current, SaveRecord previous) {
+        if (previous == null) return current;
+        boolean same = current.getFields().size() == previous.getFields().size();
+        for (Map.Entry<String, Object> field : current.getFields().entrySet()) {
+            Object value = field.getValue();
+            Object old = previous.getFields().get(field.getKey());
+            if (field.getKey().equals("entities")) {
+                if (old != null && sameElements(((SaveRecord.RecordList) value).getRecords(),
+                        ((SaveRecord.RecordList) old).getRecords()))
+                    value = old;
+            } else {
+                value = shareValue(value, old);
+            }
+            field.setValue(value);
+            same &= value == old;
+        }
+        return same ? previous : current;
+    }
+
+    private static boolean sameElements(List<SaveRecord> current, List<SaveRecord> previous) {
+        if (current.size() != previous.size()) return false;
+        for (int i = 0; i < current.size(); i++) {
+            if (current.get(i) != previous.get(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Replace every part of current that equals the matching part of previous
+     * with the previous one, so unchanged state is shared between snapshots.
+     * Each part is compared once.
+     * @return previous if nothing changed, otherwise current
+     */
+    private static SaveRecord share(SaveRecord current, SaveRecord previous) {
+        if (current == previous) return current;
+        if (previous == null || !current.getType().equals(previous.getType())) return current;
+        boolean same = current.getFields().size() == previous.getFields().size();
+        for (Map.Entry<String, Object> field : current.getFields().entrySet()) {
+            Object value = shareValue(field.getValue(), previous.getFields().get(field.getKey()));
+            field.setValue(value);
+            same &= value == previous.getFields().get(field.getKey());
+        }
+        return same ? previous : current;
+    }
+
+    // old if value is the same, otherwise value with whatever parts of it are shared with old
+    private static Object shareValue(Object value, Object old) {
+        if (old == null || value.getClass() != old.getClass()) return value;
+        if (value instanceof SaveRecord) return share((SaveRecord) value, (SaveRecord) old);
+        if (value instanceof SaveRecord.RecordList) {
+            boolean same = shareElements(((SaveRecord.RecordList) value).getRecords(),
+                ((SaveRecord.RecordList) old).getRecords());
+            return same ? old : value;
+        }
+        return (value.equals(old) && !movedLayer(value, old)) ? old : value;
+    }
+
+    // positions compare equal across layers, but a snapshot has to keep the layer
+    private static boolean movedLayer(Object value, Object old) {
+        return value instanceof Position && ((Position) value).getLayer() != ((Position) old).getLayer();
+    }
+
+    /**
+     * Share list elements with the previous list's. Records with an id are
+     * matched by it, so an entity is shared even if others were added or
+     * removed before it, and one that did change still shares its unchanged
+     * parts. Records without one are matched by content. Entities mostly stay
+     * where they were in the list, so each record is tried against the one at
+     * the same place first, and already shared records cost nothing.
+     * @return whether the lists now hold the same records in the same order
+     */
+    private static boolean shareElements(List<SaveRecord> current, List<SaveRecord> previous) {
+        Map<String, SaveRecord> byId = null;
+        Map<SaveRecord, SaveRecord> byContent = null;
+        boolean same = current.size() == previous.size();
+        for (int i = 0; i < current.size(); i++) {
+            SaveRecord r = current.get(i);
+            SaveRecord old = (i < previous.size()) ? previous.get(i) : null;
+            if (r == old) continue;
+            String id = r.getString("id", null);
+            if (id != null) {
+                if (old == null || !id.equals(old.getString("id", null))) {
+                    if (byId == null) byId = indexById(previous);
+                    old = byId.get(id);
+                }
+                r = share(r, old);
+            } else {
+                if (byContent == null) {
+                    byContent = new HashMap<>();
+                    for (SaveRecord o : previous) {
+                        byContent.put(o, o);
+                    }
+                }
+                r = byContent.getOrDefault(r, r);
+            }
+            current.set(i, r);
+            same = same && r == previous.get(i);
+        }
+        return same;
+    }
+
+    private static Map<String, SaveRecord> indexById(List<SaveRecord> records) {
+        Map<String, SaveRecord> byId = new HashMap<>();
+        for (SaveRecord r : records) {
+            String id = r.getString("id", null);
+            if (id != null) byId.put(id, r);
+        }
+        return byId;
+    }
+
+    /**
+     * Recorded -- an entity's last record and the change count it was written at.
+     */
+    private static final class Recorded {
+        private final SaveRecord record;
+        private final int changeCount;
+        private final int cellWeight;
+        private int generation;
+
+        Recorded(SaveRecord record, int changeCount, int cellWeight, int generation) {
+            this.record = record;
+            this.changeCount = changeCount;
+            this.cellWeight = cellWeight;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package dungeonmania.response.models;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dungeonmania.Game;
+import dungeonmania.battles.BattleLog;
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.Player;
+import dungeonmania.entities.enemies.ZombieToast;
+
+/**
+ * DeltaTracker -- remembers what a client was last sent so the next response
+ * can carry only the differences.
+ * Each delta gets a new version. A client that asks from any other version,
+ * or for a different game, gets a full snapshot and the tracker starts over
+ * from it.
+ */
+public class DeltaTracker {
+    private String dungeonId = null;
+    private long version = 0;
+    private Map<String, EntityResponse> entities = new HashMap<>();
+    private Map<String, ItemResponse> items = new LinkedHashMap<>();
+    private long battleCursor = 0;
+
+    public DungeonDelta diff(Game game, long since) {
+        boolean full = dungeonId == null || !dungeonId.equals(game.getId()) || since != version;
+        if (full) {
+            entities.clear();
+            items.clear();
+            battleCursor = 0;
+        }
+
+        // entities
+        Map<String, EntityResponse> current = new HashMap<>();
+        List<EntityResponse> changed = new ArrayList<>();
+        for (Entity e : game.getMap().getEntities()) {
+            EntityResponse response = ResponseBuilder.getEntityResponse(game, e);
+            current.put(response.getId(), response);
+            if (!response.equals(entities.get(response.getId()))) changed.add(response);
+        }
+        List<String> removed = new ArrayList<>();
+        for (String id : entities.keySet()) {
+            if (!current.containsKey(id)) removed.add(id);
+        }
+        entities = current;
+
+        // inventory
+        Player player = game.getPlayer();
+        Map<String, ItemResponse> currentItems = new LinkedHashMap<>();
+        List<ItemResponse> addedItems = new ArrayList<>();
+        if (player != null) {
+            for (Entity item : player.getInventory().getEntities()) {
+                ItemResponse response = items.get(item.getId());
+                if (response == null) {
+                    response = ResponseBuilder.getItemResponse(item);
+                    addedItems.add(response);
+                }
+                currentItems.put(item.getId(), response);
+            }
+        }
+        List<String> removedItems = new ArrayList<>();
+        for (String id : items.keySet()) {
+            if (!currentItems.containsKey(id)) removedItems.add(id);
+        }
+        items = currentItems;
+
+        // battles
+        BattleLog log = game.getBattleFacade().getBattleLog();
+        List<BattleResponse> battles = log.getSince(battleCursor);
+        battleCursor = log.getCursor();
+
+        dungeonId = game.getId();
+        version++;
+        return new DungeonDelta(
+                dungeonId,
+                version,
+                full,
+                changed,
+                removed,
+                addedItems,
+                removedItems,
+                battles,
+                (player != null) ? player.getBuildables(game.getMapEntities(ZombieToast.class).size()) : null,
+                game.getGoalString());
+    }
+}
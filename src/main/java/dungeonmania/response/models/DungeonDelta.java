@@ -0,0 +1,90 @@
+package dungeonmania.response.models;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * DungeonDelta -- what changed in a dungeon since the version a client last saw.
+ * If the client's version is not the one the server last sent, the delta is a
+ * full snapshot instead: isFull() is true, entities and inventory hold
+ * everything and nothing is listed as removed.
+ */
+public final class DungeonDelta implements Serializable {
+    private final String dungeonId;
+    private final long version;
+    private final boolean full;
+    private final List<EntityResponse> entities;
+    private final List<String> removedEntities;
+    private final List<ItemResponse> inventory;
+    private final List<String> removedItems;
+    private final List<BattleResponse> battles;
+    private final List<String> buildables;
+    private final String goals;
+
+    public DungeonDelta(String dungeonId, long version, boolean full, List<EntityResponse> entities,
+            List<String> removedEntities, List<ItemResponse> inventory, List<String> removedItems,
+            List<BattleResponse> battles, List<String> buildables, String goals) {
+        this.dungeonId = dungeonId;
+        this.version = version;
+        this.full = full;
+        this.entities = entities;
+        this.removedEntities = removedEntities;
+        this.inventory = inventory;
+        this.removedItems = removedItems;
+        this.battles = battles;
+        this.buildables = buildables;
+        this.goals = goals;
+    }
+
+    public final String getDungeonId() {
+        return dungeonId;
+    }
+
+    /**
+     * The version to send back to get the next delta
+     */
+    public final long getVersion() {
+        return version;
+    }
+
+    public final boolean isFull() {
+        return full;
+    }
+
+    /**
+     * @return entities that are new, have moved or have otherwise changed
+     */
+    public final List<EntityResponse> getEntities() {
+        return entities;
+    }
+
+    public final List<String> getRemovedEntities() {
+        return removedEntities;
+    }
+
+    /**
+     * @return items that have been added to the inventory
+     */
+    public final List<ItemResponse> getInventory() {
+        return inventory;
+    }
+
+    public final List<String> getRemovedItems() {
+        return removedItems;
+    }
+
+    /**
+     * @return battles fought since the last version
+     */
+    public final List<BattleResponse> getBattles() {
+        return battles;
+    }
+
+    public final List<String> getBuildables() {
+        return buildables;
+    }
+
+    public final String getGoals() {
+        return goals;
+    }
+}
@@ -28,8 +28,7 @@ public class ResponseBuilder implements Serializable {
                 (game.getPlayer() != null)
                     ? game.getPlayer().getBuildables(game.getMapEntities(ZombieToast.class).size())
                     : null,
-                (game.getGoals().achieved(game)) ? ""
-                        : game.getGoals().toString(game));
+                game.getGoalString());
     }
 
     private static List<ItemResponse> getInventoryResponse(Inventory inventory) {
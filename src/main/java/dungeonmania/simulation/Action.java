@@ -0,0 +1,151 @@
+package dungeonmania.simulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import dungeonmania.Game;
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.Interactable;
+import dungeonmania.entities.Player;
+import dungeonmania.entities.collectables.Bomb;
+import dungeonmania.entities.collectables.potions.Potion;
+import dungeonmania.exceptions.InvalidActionException;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+/**
+ * Action -- one tick's worth of player input in a simulation script.
+ * Scripts can't know the ids a game will give its entities, so items and
+ * entities are named by type: using an item uses the first one of that type
+ * in the inventory, and interacting picks the nearest entity of that type.
+ */
+public final class Action {
+    private enum Kind {
+        MOVE, USE, BUILD, INTERACT
+    }
+
+    private final Kind kind;
+    private final Direction direction;
+    private final String target;
+
+    private Action(Kind kind, Direction direction, String target) {
+        this.kind = kind;
+        this.direction = direction;
+        this.target = target;
+    }
+
+    public static Action move(Direction direction) {
+        return new Action(Kind.MOVE, direction, null);
+    }
+
+    public static Action use(String itemType) {
+        return new Action(Kind.USE, null, itemType);
+    }
+
+    public static Action build(String buildable) {
+        return new Action(Kind.BUILD, null, buildable);
+    }
+
+    public static Action interact(String entityType) {
+        return new Action(Kind.INTERACT, null, entityType);
+    }
+
+    /**
+     * Parse a script of whitespace separated actions, such as
+     * "RIGHT RIGHT use:invincibility_potion build:bow interact:mercenary".
+     * A direction on its own is a move.
+     * @throws IllegalArgumentException if any action isn't one of these
+     */
+    public static List<Action> parseScript(String script) throws IllegalArgumentException {
+        List<Action> actions = new ArrayList<>();
+        for (String token : script.trim().split("\\s+")) {
+            if (!token.isEmpty()) actions.add(parse(token));
+        }
+        return Collections.unmodifiableList(actions);
+    }
+
+    private static Action parse(String token) {
+        int colon = token.indexOf(':');
+        if (colon < 0) {
+            try {
+                return move(Direction.valueOf(token.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(token + " is not a direction");
+            }
+        }
+        String target = token.substring(colon + 1);
+        if (target.isEmpty())
+            throw new IllegalArgumentException(token + " doesn't say what to act on");
+        switch (token.substring(0, colon)) {
+        case "use":
+            return use(target);
+        case "build":
+            return build(target);
+        case "interact":
+            return interact(target);
+        default:
+            throw new IllegalArgumentException(token + " is not an action");
+        }
+    }
+
+    /**
+     * Tick the game with this action
+     * @throws InvalidActionException if the game would have rejected it, in which case it doesn't tick
+     */
+    public void apply(Game game) throws InvalidActionException {
+        switch (kind) {
+        case MOVE:
+            game.tick(direction);
+            break;
+        case USE:
+            game.tick(findItem(game.getPlayer()).getId());
+            break;
+        case BUILD:
+            game.build(target);
+            break;
+        default:
+            game.interact(findNearest(game).getId());
+            break;
+        }
+    }
+
+    private Entity findItem(Player player) throws InvalidActionException {
+        for (Entity item : player.getInventoryEntities(Entity.class)) {
+            if ((item instanceof Bomb || item instanceof Potion) && item.getTypeName().equals(target)) return item;
+        }
+        throw new InvalidActionException(String.format("There is no %s to use", target));
+    }
+
+    private Entity findNearest(Game game) throws InvalidActionException {
+        Position from = game.getPlayer().getPosition();
+        Entity nearest = null;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (Entity e : game.getMapEntities(Entity.class)) {
+            if (!(e instanceof Interactable) || !e.getTypeName().equals(target)) continue;
+            int distance = Position.calculatePositionBetween(from, e.getPosition()).magnitude();
+            if (distance < nearestDistance) {
+                nearest = e;
+                nearestDistance = distance;
+            }
+        }
+        if (nearest == null)
+            throw new InvalidActionException(String.format("There is no %s to interact with", target));
+        return nearest;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+        case MOVE:
+            return direction.name();
+        case USE:
+            return "use:" + target;
+        case BUILD:
+            return "build:" + target;
+        default:
+            return "interact:" + target;
+        }
+    }
+}
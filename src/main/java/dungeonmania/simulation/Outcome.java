@@ -0,0 +1,88 @@
+package dungeonmania.simulation;
+
+/**
+ * Outcome -- how a simulation ended.
+ * A game ends when its goals are met, when the player dies, or when the
+ * script runs out. Actions the game rejected are skipped without a tick.
+ */
+public final class Outcome {
+    private final Simulation simulation;
+    private final boolean goalAchieved;
+    private final boolean alive;
+    private final int ticks;
+    private final long battles;
+    private final double playerHealth;
+    private final int rejectedActions;
+    private final String error;
+
+    public Outcome(Simulation simulation, boolean goalAchieved, boolean alive, int ticks, long battles,
+            double playerHealth, int rejectedActions) {
+        this(simulation, goalAchieved, alive, ticks, battles, playerHealth, rejectedActions, null);
+    }
+
+    private Outcome(Simulation simulation, boolean goalAchieved, boolean alive, int ticks, long battles,
+            double playerHealth, int rejectedActions, String error) {
+        this.simulation = simulation;
+        this.goalAchieved = goalAchieved;
+        this.alive = alive;
+        this.ticks = ticks;
+        this.battles = battles;
+        this.playerHealth = playerHealth;
+        this.rejectedActions = rejectedActions;
+        this.error = error;
+    }
+
+    /**
+     * The outcome of a simulation that couldn't be played at all, such as one naming a dungeon that doesn't exist
+     */
+    public static Outcome failed(Simulation simulation, String error) {
+        return new Outcome(simulation, false, false, 0, 0, 0, 0, error);
+    }
+
+    public Simulation getSimulation() {
+        return simulation;
+    }
+
+    public boolean isGoalAchieved() {
+        return goalAchieved;
+    }
+
+    public boolean isAlive() {
+        return alive;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    public long getBattles() {
+        return battles;
+    }
+
+    /**
+     * @return the player's health when the game ended, which is at most 0 if they died
+     */
+    public double getPlayerHealth() {
+        return playerHealth;
+    }
+
+    public int getRejectedActions() {
+        return rejectedActions;
+    }
+
+    /**
+     * @return why the simulation couldn't be played, or null if it was
+     */
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        if (error != null) return String.format("%s/%s seed %d: %s", simulation.getDungeonName(),
+            simulation.getConfigName(), simulation.getSeed(), error);
+        return String.format("%s/%s seed %d: %s after %d ticks, %d battles, health %.1f",
+            simulation.getDungeonName(), simulation.getConfigName(), simulation.getSeed(),
+            goalAchieved ? "won" : (alive ? "unfinished" : "died"), ticks, battles, playerHealth);
+    }
+}
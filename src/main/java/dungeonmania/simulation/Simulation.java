@@ -0,0 +1,47 @@
+package dungeonmania.simulation;
+
+import java.util.List;
+
+/**
+ * Simulation -- one game to play without a client: a dungeon, a config, the
+ * actions to take in order, and the seed for everything random in the game.
+ * The same simulation always plays out the same way.
+ */
+public final class Simulation {
+    private final String dungeonName;
+    private final String configName;
+    private final List<Action> script;
+    private final long seed;
+
+    public Simulation(String dungeonName, String configName, List<Action> script, long seed) {
+        this.dungeonName = dungeonName;
+        this.configName = configName;
+        this.script = List.copyOf(script);
+        this.seed = seed;
+    }
+
+    /**
+     * @param script actions in the form Action.parseScript reads
+     * @throws IllegalArgumentException if the script can't be parsed
+     */
+    public Simulation(String dungeonName, String configName, String script, long seed)
+            throws IllegalArgumentException {
+        this(dungeonName, configName, Action.parseScript(script), seed);
+    }
+
+    public String getDungeonName() {
+        return dungeonName;
+    }
+
+    public String getConfigName() {
+        return configName;
+    }
+
+    public List<Action> getScript() {
+        return script;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,134 @@
+package dungeonmania.simulation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+import dungeonmania.Game;
+import dungeonmania.ResourceCatalog;
+import dungeonmania.exceptions.InvalidActionException;
+
+/**
+ * SimulationRunner -- plays batches of simulations in parallel, with no server or controller.
+ * Games share nothing but their dungeon's compiled template, so each runs on
+ * whichever worker picks it up, and idle workers steal what is left of the
+ * batch from busy ones.
+ */
+public final class SimulationRunner implements AutoCloseable {
+    private final ForkJoinPool pool;
+
+    /**
+     * A runner with a worker for every core
+     */
+    public SimulationRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public SimulationRunner(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Play every simulation, handing each outcome to results as soon as its game ends.
+     * Outcomes arrive in the order games finish, one at a time, from the workers' threads.
+     * Returns once every outcome has been handed over.
+     */
+    public void run(List<Simulation> simulations, Consumer<Outcome> results) {
+        ReentrantLock delivering = new ReentrantLock();
+        pool.invoke(new Batch(simulations, 0, simulations.size(), (outcome, index) -> {
+            delivering.lock();
+            try {
+                results.accept(outcome);
+            } finally {
+                delivering.unlock();
+            }
+        }));
+    }
+
+    /**
+     * Play every simulation
+     * @return the outcomes, in the same order as the simulations
+     */
+    public List<Outcome> run(List<Simulation> simulations) {
+        Outcome[] outcomes = new Outcome[simulations.size()];
+        pool.invoke(new Batch(simulations, 0, outcomes.length, (outcome, index) -> outcomes[index] = outcome));
+        return Arrays.asList(outcomes);
+    }
+
+    /**
+     * Play one simulation on this thread, stopping early if the goals are met or the player dies
+     */
+    public static Outcome simulate(Simulation simulation) {
+        if (!ResourceCatalog.hasDungeon(simulation.getDungeonName()))
+            return Outcome.failed(simulation, simulation.getDungeonName() + " is not a dungeon that exists");
+        if (!ResourceCatalog.hasConfig(simulation.getConfigName()))
+            return Outcome.failed(simulation, simulation.getConfigName() + " is not a configuration that exists");
+
+        Game game;
+        try {
+            game = ResourceCatalog.getTemplate(simulation.getDungeonName(), simulation.getConfigName())
+                .newGame(simulation.getSeed());
+        } catch (RuntimeException e) {
+            return Outcome.failed(simulation, "The dungeon couldn't be built: " + e);
+        }
+
+        int rejected = 0;
+        for (Action action : simulation.getScript()) {
+            if (isOver(game)) break;
+            try {
+                action.apply(game);
+            } catch (InvalidActionException e) {
+                rejected++;
+            }
+        }
+        return new Outcome(simulation, game.getGoalString().isEmpty(), isAlive(game), game.getTick(),
+            game.getBattleFacade().getBattleLog().getCursor(), game.getPlayer().getHealth(), rejected);
+    }
+
+    private static boolean isOver(Game game) {
+        return game.getGoalString().isEmpty() || !isAlive(game);
+    }
+
+    private static boolean isAlive(Game game) {
+        return game.getMap().getEntity(game.getPlayer().getId()) == game.getPlayer();
+    }
+
+    /**
+     * Stop the workers once any batch in progress is done
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Batch -- a run of simulations, split in half until each half is a single game.
+     */
+    private static final class Batch extends RecursiveAction {
+        private final List<Simulation> simulations;
+        private final int from;
+        private final int to;
+        private final ObjIntConsumer<Outcome> results;
+
+        Batch(List<Simulation> simulations, int from, int to, ObjIntConsumer<Outcome> results) {
+            this.simulations = simulations;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                results.accept(simulate(simulations.get(from)), from);
+            } else if (to > from) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Batch(simulations, from, middle, results), new Batch(simulations, middle, to, results));
+            }
+        }
+    }
+}
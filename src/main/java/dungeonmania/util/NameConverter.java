@@ -1,42 +1,43 @@
 package dungeonmania.util;
 
-import java.util.Arrays;
-import java.util.Iterator;
-
-import dungeonmania.entities.Door;
 import dungeonmania.entities.Entity;
-import dungeonmania.entities.Portal;
 
+/**
+ * NameConverter -- turns class names into the snake_case type names the frontend uses.
+ * Each class's name is converted once and kept, so naming entities in a
+ * response is a table lookup. Entities whose name depends on their state,
+ * such as doors and portals, supply it through Entity.getTypeName.
+ */
 public class NameConverter {
-    public static String toSnakeCase(Entity entity) {
-        String nameBasic = toSnakeCase(entity.getClass().getSimpleName());
-        if (entity instanceof Portal) {
-            String color = "_" + ((Portal) entity).getColor().toLowerCase();
-            return nameBasic + color;
-        }
-        if (entity instanceof Door) {
-            String open = ((Door) entity).isOpen() ? "_open" : "";
-            return nameBasic + open;
+    private static final ClassValue<String> TYPE_NAMES = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return toSnakeCase(type.getSimpleName());
         }
-        return nameBasic;
+    };
+
+    public static String toSnakeCase(Entity entity) {
+        return entity.getTypeName();
     }
 
+    /**
+     * Split a CamelCase name before each capital and join the lowercased words with underscores
+     */
     public static String toSnakeCase(String name) {
-        String[] words = name.split("(?=[A-Z])");
-        if (words.length == 1)
-            return words[0].toLowerCase();
-
-        StringBuilder builder = new StringBuilder();
-        Iterator<String> iter = Arrays.stream(words).iterator();
-        builder.append(iter.next().toLowerCase());
-
-        while (iter.hasNext())
-            builder.append("_").append(iter.next().toLowerCase());
-
+        StringBuilder builder = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0) builder.append('_');
+                builder.append(Character.toLowerCase(c));
+            } else {
+                builder.append(c);
+            }
+        }
         return builder.toString();
     }
 
     public static String toSnakeCase(Class<?> clazz) {
-        return toSnakeCase(clazz.getSimpleName());
+        return TYPE_NAMES.get(clazz);
     }
 }
@@ -1,8 +1,6 @@
 package dungeonmania.util;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.io.Serializable;
 
 public final class Position implements Serializable {
@@ -11,10 +9,20 @@ public final class Position implements Serializable {
     public static final int DOOR_LAYER = 2;
     public static final int CHARACTER_LAYER = 3;
 
+    // positions on the standard layers around the origin are interned, like Integer.valueOf
+    private static final int CACHE_MIN = -64;
+    private static final int CACHE_SIZE = 256;
+    private static final int CACHE_LAYERS = CHARACTER_LAYER + 1;
+    private static final Position[] CACHE = new Position[CACHE_LAYERS * CACHE_SIZE * CACHE_SIZE];
+
     private final int x;
     private final int y;
     private final int layer;
 
+    // neighbours are immutable, so they are built once per position and shared
+    private transient List<Position> adjacent;
+    private transient List<Position> cardinallyAdjacent;
+
     public Position(int x, int y, int layer) {
         this.x = x;
         this.y = y;
@@ -27,9 +35,32 @@ public final class Position implements Serializable {
         this.layer = 0;
     }
 
+    /**
+     * Get the position at (x, y, layer), sharing one instance per coordinate where possible
+     */
+    public static Position of(int x, int y, int layer) {
+        int cx = x - CACHE_MIN;
+        int cy = y - CACHE_MIN;
+        if (cx < 0 || cy < 0 || cx >= CACHE_SIZE || cy >= CACHE_SIZE || layer < 0 || layer >= CACHE_LAYERS)
+            return new Position(x, y, layer);
+        int index = (layer * CACHE_SIZE + cy) * CACHE_SIZE + cx;
+        // racing threads may each create an instance; positions are immutable so either is fine
+        Position p = CACHE[index];
+        if (p == null) {
+            p = new Position(x, y, layer);
+            CACHE[index] = p;
+        }
+        return p;
+    }
+
+    public static Position of(int x, int y) {
+        return of(x, y, 0);
+    }
+
     @Override
     public final int hashCode() {
-        return Objects.hash(x, y);
+        // same value as Objects.hash(x, y), without boxing
+        return 31 * (31 + x) + y;
     }
 
     @Override
@@ -62,11 +93,11 @@ public final class Position implements Serializable {
     }
 
     public final Position asLayer(int layer) {
-        return new Position(x, y, layer);
+        return of(x, y, layer);
     }
 
     public static final Position translateBy(Position old, int deltaX, int deltaY) {
-        return translateBy(old, new Position(deltaX, deltaY));
+        return of(old.x + deltaX, old.y + deltaY, old.layer);
     }
 
     public static final Position translateBy(Position old, Direction direction) {
@@ -74,7 +105,7 @@ public final class Position implements Serializable {
     }
 
     public static final Position translateBy(Position old, Position delta) {
-        return new Position(old.x + delta.x, old.y + delta.y, old.layer + delta.layer);
+        return of(old.x + delta.x, old.y + delta.y, old.layer + delta.layer);
     }
 
     // (Note: doesn't include z)
@@ -86,46 +117,60 @@ public final class Position implements Serializable {
      */
 
     public static final Position calculatePositionBetween(Position a, Position b) {
-        return new Position(b.x - a.x, b.y - a.y);
+        return of(b.x - a.x, b.y - a.y);
     }
 
     public static final boolean isAdjacent(Position a, Position b) {
         return Math.abs(a.x - b.x) + Math.abs(a.y - b.y) == 1;
     }
 
+    // keep loaded positions interned too
+    private Object readResolve() {
+        return of(x, y, layer);
+    }
+
     @Override
     public final String toString() {
         return "Position [x=" + x + ", y=" + y + ", z=" + layer + "]";
     }
 
-    // Return Adjacent positions in an array list with the following element
+    // Return Adjacent positions in a list with the following element
     // positions:
     // 0 1 2
     // 7 p 3
     // 6 5 4
+    // The returned list is shared and unmodifiable.
     public List<Position> getAdjacentPositions() {
-        List<Position> adjacentPositions = new ArrayList<>();
-        adjacentPositions.add(new Position(x - 1, y - 1));
-        adjacentPositions.add(new Position(x, y - 1));
-        adjacentPositions.add(new Position(x + 1, y - 1));
-        adjacentPositions.add(new Position(x + 1, y));
-        adjacentPositions.add(new Position(x + 1, y + 1));
-        adjacentPositions.add(new Position(x, y + 1));
-        adjacentPositions.add(new Position(x - 1, y + 1));
-        adjacentPositions.add(new Position(x - 1, y));
+        List<Position> adjacentPositions = adjacent;
+        if (adjacentPositions == null) {
+            adjacentPositions = List.of(
+                of(x - 1, y - 1),
+                of(x, y - 1),
+                of(x + 1, y - 1),
+                of(x + 1, y),
+                of(x + 1, y + 1),
+                of(x, y + 1),
+                of(x - 1, y + 1),
+                of(x - 1, y));
+            adjacent = adjacentPositions;
+        }
         return adjacentPositions;
     }
 
     /**
      * Get cardinally adjacent positions only
-     * @return
+     * @return a shared, unmodifiable list
      */
     public List<Position> getCardinallyAdjacentPositions() {
-        List<Position> adjacentPositions = new ArrayList<>();
-        adjacentPositions.add(new Position(x, y - 1));
-        adjacentPositions.add(new Position(x + 1, y));
-        adjacentPositions.add(new Position(x, y + 1));
-        adjacentPositions.add(new Position(x - 1, y));
+        List<Position> adjacentPositions = cardinallyAdjacent;
+        if (adjacentPositions == null) {
+            adjacentPositions = List.of(
+                of(x, y - 1),
+                of(x + 1, y),
+                of(x, y + 1),
+                of(x - 1, y));
+            cardinallyAdjacent = adjacentPositions;
+        }
         return adjacentPositions;
     }
 }
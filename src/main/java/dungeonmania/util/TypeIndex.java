@@ -0,0 +1,95 @@
+package dungeonmania.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TypeIndex -- live per-type sets of objects.
+ * Every object is filed under its own class and all of its superclasses and
+ * interfaces, so typed lookups cost O(result) and counts cost O(1) instead of
+ * filtering every object with isInstance.
+ * Objects are compared by identity and kept in insertion order.
+ */
+public class TypeIndex<T> implements Serializable {
+    private static final ClassValue<List<Class<?>>> SUPERTYPES = new ClassValue<List<Class<?>>>() {
+        @Override
+        protected List<Class<?>> computeValue(Class<?> type) {
+            Set<Class<?>> result = new LinkedHashSet<>();
+            collectSupertypes(type, result);
+            return Collections.unmodifiableList(new ArrayList<>(result));
+        }
+    };
+
+    private Map<Class<?>, Set<T>> buckets = new HashMap<>();
+
+    private static void collectSupertypes(Class<?> type, Set<Class<?>> result) {
+        if (type == null || type == Object.class || !result.add(type)) return;
+        collectSupertypes(type.getSuperclass(), result);
+        for (Class<?> i : type.getInterfaces()) {
+            collectSupertypes(i, result);
+        }
+    }
+
+    /**
+     * An empty index with room for the given number of objects of each type, as counts returns them
+     */
+    public static <T> TypeIndex<T> withRoomFor(Map<Class<?>, Integer> counts) {
+        TypeIndex<T> index = new TypeIndex<>();
+        index.buckets = new HashMap<>(counts.size() * 4 / 3 + 1);
+        counts.forEach((type, count) -> index.buckets.put(type, new LinkedHashSet<>(count * 4 / 3 + 1)));
+        return index;
+    }
+
+    /**
+     * How many objects are filed under each type
+     */
+    public Map<Class<?>, Integer> counts() {
+        Map<Class<?>, Integer> counts = new HashMap<>(buckets.size() * 4 / 3 + 1);
+        buckets.forEach((type, bucket) -> counts.put(type, bucket.size()));
+        return counts;
+    }
+
+    public void add(T item) {
+        for (Class<?> type : SUPERTYPES.get(item.getClass())) {
+            buckets.computeIfAbsent(type, k -> new LinkedHashSet<>()).add(item);
+        }
+    }
+
+    public void remove(T item) {
+        for (Class<?> type : SUPERTYPES.get(item.getClass())) {
+            Set<T> bucket = buckets.get(type);
+            if (bucket != null) bucket.remove(item);
+        }
+    }
+
+    public <U> List<U> get(Class<U> type) {
+        Set<T> bucket = buckets.get(type);
+        if (bucket == null) return new ArrayList<>();
+        List<U> result = new ArrayList<>(bucket.size());
+        for (T item : bucket) {
+            result.add(type.cast(item));
+        }
+        return result;
+    }
+
+    public <U> U getFirst(Class<U> type) {
+        Set<T> bucket = buckets.get(type);
+        if (bucket == null || bucket.isEmpty()) return null;
+        return type.cast(bucket.iterator().next());
+    }
+
+    public int count(Class<?> type) {
+        Set<T> bucket = buckets.get(type);
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    public void clear() {
+        buckets.clear();
+    }
+}
@@ -0,0 +1,47 @@
+package dungeonmania.load;
+
+import java.util.Arrays;
+
+import dungeonmania.DungeonManiaController;
+
+/**
+ * NewGameLatency -- times DungeonManiaController.newGame, in process.
+ * The first call is reported on its own since it pays for any one-off
+ * loading; the rest are timed after a warm up.
+ * <pre>
+ * gradle newGameLatency --args="[dungeon] [config] [games]"
+ * </pre>
+ * Defaults are maze, simple and 2000 games.
+ */
+public final class NewGameLatency {
+    private NewGameLatency() {
+    }
+
+    public static void main(String[] args) {
+        String dungeon = arg(args, 0, "maze");
+        String config = arg(args, 1, "simple");
+        int games = Integer.parseInt(arg(args, 2, "2000"));
+        DungeonManiaController dmc = new DungeonManiaController();
+
+        long before = System.nanoTime();
+        dmc.newGame(dungeon, config);
+        System.out.printf("first game %.2f ms%n", (System.nanoTime() - before) / 1e6);
+
+        for (int i = 0; i < games; i++) {
+            dmc.newGame(dungeon, config);
+        }
+        long[] times = new long[games];
+        for (int i = 0; i < games; i++) {
+            before = System.nanoTime();
+            dmc.newGame(dungeon, config);
+            times[i] = System.nanoTime() - before;
+        }
+        Arrays.sort(times);
+        System.out.printf("%s/%s over %d games: p50 %.3f ms  p90 %.3f ms  p99 %.3f ms%n", dungeon, config, games,
+            times[games / 2] / 1e6, times[games * 9 / 10] / 1e6, times[games * 99 / 100] / 1e6);
+    }
+
+    private static String arg(String[] args, int i, String defaultValue) {
+        return (args.length > i) ? args[i] : defaultValue;
+    }
+}
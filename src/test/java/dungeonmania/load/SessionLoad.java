@@ -0,0 +1,129 @@
+package dungeonmania.load;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * SessionLoad -- drives many client sessions against a running server at once.
+ * Each virtual client keeps its own cookie jar, so the server sees it as its own
+ * session. Every client starts a game and then ticks it as fast as it can; the
+ * latency of every tick is recorded and the percentiles are printed at the end.
+ * A failed tick is counted and left out of the latencies; the client carries on.
+ * <p>
+ * Start the server, then run:
+ * <pre>
+ * gradle loadTest --args="[url] [sessions] [ticks] [dungeon] [config]"
+ * </pre>
+ * Defaults are http://localhost:4568, 200 sessions, 100 ticks, maze and simple.
+ */
+public final class SessionLoad {
+    private static final AtomicInteger FAILURES = new AtomicInteger();
+    private static final AtomicReference<String> FIRST_FAILURE = new AtomicReference<>();
+
+    private SessionLoad() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = arg(args, 0, "http://localhost:4568");
+        int sessions = Integer.parseInt(arg(args, 1, "200"));
+        int ticks = Integer.parseInt(arg(args, 2, "100"));
+        String dungeon = arg(args, 3, "maze");
+        String config = arg(args, 4, "simple");
+
+        ExecutorService pool = Executors.newFixedThreadPool(sessions);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> clients = new ArrayList<>();
+        for (int i = 0; i < sessions; i++) {
+            clients.add(pool.submit(() -> runClient(url, ticks, dungeon, config, start)));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        long[] latencies = new long[sessions * ticks];
+        int n = 0;
+        for (Future<long[]> client : clients) {
+            for (long time : client.get()) {
+                if (time >= 0) latencies[n++] = time;
+            }
+        }
+        long elapsed = System.nanoTime() - began;
+        pool.shutdown();
+
+        latencies = Arrays.copyOf(latencies, n);
+        Arrays.sort(latencies);
+        System.out.printf("%d sessions x %d ticks on %s/%s, %d requests failed%n",
+            sessions, ticks, dungeon, config, FAILURES.get());
+        if (FIRST_FAILURE.get() != null) System.out.println("first failure: " + FIRST_FAILURE.get());
+        System.out.printf("%d ticks in %.1f s, %.0f ticks/s%n", n, elapsed / 1e9, n / (elapsed / 1e9));
+        System.out.printf("p50 %.2f ms  p90 %.2f ms  p99 %.2f ms  max %.2f ms%n",
+            percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+            percentile(latencies, 100));
+    }
+
+    /**
+     * Start a game and tick it, as one session
+     * @return the latency of each tick in nanoseconds, or -1 for each one that failed
+     */
+    private static long[] runClient(String url, int ticks, String dungeon, String config, CountDownLatch start)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+            .cookieHandler(new CookieManager())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        start.await();
+        long[] times = new long[ticks];
+        if (!post(client, url + "/api/game/new/?dungeonName=" + dungeon + "&configName=" + config)) {
+            Arrays.fill(times, -1);
+            return times;
+        }
+        for (int i = 0; i < ticks; i++) {
+            // back and forth, so the player stays near the start however long the run
+            String direction = (i % 2 == 0) ? "RIGHT" : "LEFT";
+            long before = System.nanoTime();
+            boolean ok = post(client, url + "/api/game/tick/movement/?movementDirection=" + direction);
+            times[i] = ok ? System.nanoTime() - before : -1;
+        }
+        return times;
+    }
+
+    private static boolean post(HttpClient client, String uri) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(uri))
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+        String failure;
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200 && !response.body().contains("\"isError\":true")) return true;
+            failure = uri + " -> " + response.statusCode() + " " + response.body();
+        } catch (IOException e) {
+            failure = uri + " -> " + e;
+        }
+        FAILURES.incrementAndGet();
+        FIRST_FAILURE.compareAndSet(null, failure);
+        return false;
+    }
+
+    private static double percentile(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int i = Math.min(sorted.length - 1, (int) Math.ceil(p / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(i, 0)] / 1e6;
+    }
+
+    private static String arg(String[] args, int i, String defaultValue) {
+        return (args.length > i) ? args[i] : defaultValue;
+    }
+}
@@ -0,0 +1,61 @@
+package dungeonmania.load;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+
+import dungeonmania.SessionRegistry;
+import dungeonmania.util.Direction;
+
+/**
+ * SessionSoak -- starts a game in each of many sessions, in process, and
+ * checks the heap stays flat once the live game limit is reached. Every
+ * session is visited again at the end, so each spilled game is read back.
+ * <p>
+ * Run it under a fixed heap:
+ * <pre>
+ * gradle soakTest --args="[sessions] [max live games] [dungeon] [config]"
+ * </pre>
+ * Defaults are 10000 sessions, 200 live games, maze and simple.
+ */
+public final class SessionSoak {
+    private SessionSoak() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = Integer.parseInt(arg(args, 0, "10000"));
+        int maxLive = Integer.parseInt(arg(args, 1, "200"));
+        String dungeon = arg(args, 2, "maze");
+        String config = arg(args, 3, "simple");
+
+        Path spillDirectory = Files.createTempDirectory("soak");
+        SessionRegistry sessions = new SessionRegistry(maxLive, null, null, spillDirectory, Clock.systemUTC());
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.out.printf("max heap %d MB, spilling to %s%n", Runtime.getRuntime().maxMemory() >> 20, spillDirectory);
+
+        long began = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            sessions.call("session" + i, dmc -> dmc.newGame(dungeon, config));
+            if ((i + 1) % (count / 10) == 0) report(sessions, memory, i + 1 + " started");
+        }
+        for (int i = 0; i < count; i++) {
+            sessions.call("session" + i, dmc -> dmc.tick(Direction.RIGHT));
+        }
+        report(sessions, memory, "all ticked");
+        System.out.printf("%.1f s%n", (System.nanoTime() - began) / 1e9);
+    }
+
+    private static void report(SessionRegistry sessions, MemoryMXBean memory, String when) {
+        System.gc();
+        SessionRegistry.Stats stats = sessions.getStats();
+        System.out.printf("%-14s live %5d  spilled %6d  faults %6d  heap used %4d MB%n", when,
+            stats.getLive(), stats.getSpilled(), stats.getTotalFaults(),
+            memory.getHeapMemoryUsage().getUsed() >> 20);
+    }
+
+    private static String arg(String[] args, int i, String defaultValue) {
+        return (args.length > i) ? args[i] : defaultValue;
+    }
+}
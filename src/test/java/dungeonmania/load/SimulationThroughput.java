@@ -0,0 +1,72 @@
+package dungeonmania.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dungeonmania.simulation.Action;
+import dungeonmania.simulation.Simulation;
+import dungeonmania.simulation.SimulationRunner;
+import dungeonmania.util.Direction;
+
+/**
+ * SimulationThroughput -- plays the same batch of games with 1, 2, 4... workers,
+ * up to one per core, and reports games per second at each, so how well the
+ * runner scales with cores can be read off directly. Every game walks a random
+ * script of its own.
+ * <pre>
+ * gradle simulationThroughput --args="[dungeon] [config] [games] [ticks]"
+ * </pre>
+ * Defaults are maze, simple, 5000 games and 100 ticks.
+ */
+public final class SimulationThroughput {
+    private SimulationThroughput() {
+    }
+
+    public static void main(String[] args) {
+        String dungeon = arg(args, 0, "maze");
+        String config = arg(args, 1, "simple");
+        int games = Integer.parseInt(arg(args, 2, "5000"));
+        int ticks = Integer.parseInt(arg(args, 3, "100"));
+
+        Direction[] directions = {Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT};
+        List<Simulation> batch = new ArrayList<>();
+        for (int seed = 0; seed < games; seed++) {
+            Random random = new Random(seed);
+            List<Action> script = new ArrayList<>();
+            for (int i = 0; i < ticks; i++) {
+                script.add(Action.move(directions[random.nextInt(directions.length)]));
+            }
+            batch.add(new Simulation(dungeon, config, script, seed));
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%s/%s, %d games of up to %d ticks, %d cores%n", dungeon, config, games, ticks, cores);
+        double base = 0;
+        List<Integer> workerCounts = new ArrayList<>();
+        for (int workers = 1; workers < cores; workers *= 2) {
+            workerCounts.add(workers);
+        }
+        workerCounts.add(cores);
+        for (int workers : workerCounts) {
+            try (SimulationRunner runner = new SimulationRunner(workers)) {
+                // the first run warms up the template and the JIT
+                runner.run(batch.subList(0, Math.min(games, 500)));
+                AtomicInteger won = new AtomicInteger();
+                long before = System.nanoTime();
+                runner.run(batch, outcome -> {
+                    if (outcome.isGoalAchieved()) won.incrementAndGet();
+                });
+                double perSecond = games / ((System.nanoTime() - before) / 1e9);
+                if (workers == 1) base = perSecond;
+                System.out.printf("%2d workers: %8.0f games/s  x%.2f  (%d won)%n", workers, perSecond,
+                    perSecond / base, won.get());
+            }
+        }
+    }
+
+    private static String arg(String[] args, int i, String defaultValue) {
+        return (args.length > i) ? args[i] : defaultValue;
+    }
+}
@@ -288,5 +288,23 @@ public class BasicGoalsTest {
         assertEquals("", TestUtils.getGoals(res));
     }
 
+    @Test
+    @Tag("13-12")
+    @DisplayName("Test the boulders goal is unmet again once the boulder is pushed off the switch")
+    public void boulderPushedOffSwitch() {
+        DungeonManiaController dmc;
+        dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame("d_basicGoalsTest_oneSwitch", "c_basicGoalsTest_oneSwitch");
+        assertTrue(TestUtils.getGoals(res).contains(":boulders"));
 
+        // push the boulder onto the switch
+        res = dmc.tick(Direction.RIGHT);
+        assertTrue(TestUtils.getGoals(res).contains(":boulders"));
+        res = dmc.tick(Direction.RIGHT);
+        assertEquals("", TestUtils.getGoals(res));
+
+        // and off it again
+        res = dmc.tick(Direction.RIGHT);
+        assertTrue(TestUtils.getGoals(res).contains(":boulders"));
+    }
 }
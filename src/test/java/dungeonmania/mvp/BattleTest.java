@@ -1,6 +1,9 @@
 package dungeonmania.mvp;
 
 import dungeonmania.DungeonManiaController;
+import dungeonmania.battles.BattleLog;
+import dungeonmania.battles.BattleOutcome;
+import dungeonmania.battles.BattleStatistics;
 import dungeonmania.exceptions.InvalidActionException;
 import dungeonmania.response.models.DungeonResponse;
 import dungeonmania.response.models.BattleResponse;
@@ -12,7 +15,11 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -663,4 +670,112 @@ public class BattleTest {
 
         assertEquals((enemyAttack - (allyDefence * 2)) / 10, -firstRound.getDeltaCharacterHealth(), 0.001);
     }
+
+    @Test
+    @Tag("11-26")
+    @DisplayName("Test that resolving a battle at once matches fighting it round by round")
+    public void testResolveMatchesRoundByRound() {
+        double[] magnifiers = {1, 2};
+        double[] reducers = {1, 2, 5, 10};
+        Random random = new Random(2511);
+        for (int i = 0; i < 5000; i++) {
+            BattleStatistics player = new BattleStatistics(random.nextInt(200) + 1, random.nextInt(30),
+                    random.nextInt(10), magnifiers[random.nextInt(2)], reducers[random.nextInt(4)]);
+            BattleStatistics enemy = new BattleStatistics(random.nextInt(200) + 1, random.nextInt(30),
+                    random.nextInt(10), magnifiers[random.nextInt(2)], reducers[random.nextInt(4)]);
+
+            double damageOnPlayer = enemy.getMagnifier() * (enemy.getAttack() - player.getDefence())
+                    / player.getReducer();
+            double damageOnEnemy = player.getMagnifier() * (player.getAttack() - enemy.getDefence())
+                    / enemy.getReducer();
+            if (damageOnPlayer <= 0 && damageOnEnemy <= 0) continue;
+
+            // fight it out the long way
+            double playerHealth = player.getHealth();
+            double enemyHealth = enemy.getHealth();
+            int rounds = 0;
+            while (playerHealth > 0 && enemyHealth > 0) {
+                playerHealth -= damageOnPlayer;
+                enemyHealth -= damageOnEnemy;
+                rounds++;
+            }
+
+            BattleOutcome outcome = BattleStatistics.resolve(player, enemy);
+            assertEquals(rounds, outcome.getRoundCount());
+            assertEquals(-damageOnPlayer, outcome.getRound().getDeltaSelfHealth(), 1e-9);
+            assertEquals(-damageOnEnemy, outcome.getRound().getDeltaTargetHealth(), 1e-9);
+            assertEquals(playerHealth, player.getHealth(), 1e-9);
+            assertEquals(enemyHealth, enemy.getHealth(), 1e-9);
+            assertEquals(playerHealth <= 0, player.getHealth() <= 0);
+            assertEquals(enemyHealth <= 0, enemy.getHealth() <= 0);
+        }
+    }
+
+    @Test
+    @Tag("11-27")
+    @DisplayName("Test that a battle where neither side can be hurt ends after one round")
+    public void testStalemateEndsAfterOneRound() {
+        BattleStatistics player = new BattleStatistics(10, 4, 3, 1, 10);
+        BattleStatistics enemy = new BattleStatistics(10, 3, 4, 1, 5);
+
+        BattleOutcome outcome = BattleStatistics.resolve(player, enemy);
+        assertEquals(1, outcome.getRoundCount());
+        assertEquals(10, player.getHealth());
+        assertEquals(10, enemy.getHealth());
+    }
+
+    @Test
+    @Tag("11-28")
+    @DisplayName("Test that the battle log only keeps its retention window and can be read from a cursor")
+    public void testBattleLogRetentionAndCursor() {
+        BattleLog log = new BattleLog(3);
+        List<BattleResponse> battles = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            BattleResponse battle = new BattleResponse();
+            battles.add(battle);
+            log.add(battle);
+        }
+
+        assertEquals(5, log.getCursor());
+        assertEquals(battles.subList(2, 5), log.getRecent());
+        assertEquals(battles.subList(3, 5), log.getSince(3));
+        assertEquals(battles.subList(2, 5), log.getSince(0));
+        assertEquals(0, log.getSince(5).size());
+    }
+
+    @Test
+    @Tag("11-29")
+    @DisplayName("Test that a client can fetch only the battles since its last cursor")
+    public void testBattlesSinceCursor() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGame("d_battleTest_basicMercenary", "c_battleTests_basicMercenaryMercenaryDies");
+        long cursor = controller.getBattleCursor();
+        assertEquals(0, controller.getBattlesSince(cursor).size());
+
+        DungeonResponse res = controller.tick(Direction.RIGHT);
+        for (int i = 0; i < 2 && res.getBattles().size() == 0; i++) {
+            res = controller.tick(Direction.RIGHT);
+        }
+        assertEquals(1, res.getBattles().size());
+        assertEquals(1, controller.getBattlesSince(cursor).size());
+        assertEquals(0, controller.getBattlesSince(controller.getBattleCursor()).size());
+    }
+
+    @Test
+    @Tag("11-30")
+    @DisplayName("Test that the battle log file must stay inside build/battles")
+    public void testBattleLogFileStaysInDirectory() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGame("d_battleTest_basicMercenary", "c_battleTests_basicMercenaryMercenaryDies");
+
+        Path directory = Paths.get("build", "battles").toAbsolutePath().normalize();
+        assertEquals(directory.resolve("run.jsonl").toString(), controller.setBattleLogFile("run.jsonl"));
+        assertEquals(directory.resolve("runs/one.jsonl").toString(),
+            controller.setBattleLogFile("runs/../runs/one.jsonl"));
+        assertThrows(IllegalArgumentException.class, () -> controller.setBattleLogFile("../escaped.jsonl"));
+        assertThrows(IllegalArgumentException.class, () -> controller.setBattleLogFile("runs/../../escaped.jsonl"));
+        assertThrows(IllegalArgumentException.class, () -> controller.setBattleLogFile("/tmp/escaped.jsonl"));
+        assertThrows(IllegalArgumentException.class, () -> controller.setBattleLogFile("."));
+        assertNull(controller.setBattleLogFile(null));
+    }
 }
@@ -1,9 +1,21 @@
 package dungeonmania.mvp;
 
 import dungeonmania.DungeonManiaController;
+import dungeonmania.entities.EntityFactory;
+import dungeonmania.entities.buildables.Bow;
+import dungeonmania.entities.collectables.Arrow;
+import dungeonmania.entities.collectables.Sword;
+import dungeonmania.entities.collectables.Treasure;
+import dungeonmania.entities.collectables.Wood;
+import dungeonmania.entities.inventory.Inventory;
+import dungeonmania.entities.inventory.InventoryItem;
+import dungeonmania.entities.inventory.Recipe;
+import dungeonmania.entities.inventory.RecipeBook;
 import dungeonmania.response.models.DungeonResponse;
 import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
 import dungeonmania.exceptions.*;
+import org.json.JSONObject;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -189,4 +201,111 @@ public class BuildablesTest {
         buildables.remove("shield");
         assertEquals(buildables, res.getBuildables());
     }
+
+    @Test
+    @Tag("5-7")
+    @DisplayName("Test that inventory counts, lookups and buildables follow every add and remove")
+    public void inventoryIndexesFollowContents() {
+        Inventory inventory = new Inventory();
+        Wood wood = new Wood(new Position(0, 0));
+        List<Arrow> arrows = new ArrayList<>();
+        inventory.add(wood);
+        for (int i = 0; i < 3; i++) {
+            Arrow arrow = new Arrow(new Position(0, 0));
+            arrows.add(arrow);
+            inventory.add(arrow);
+        }
+
+        assertEquals(1, inventory.count(Wood.class));
+        assertEquals(3, inventory.count(Arrow.class));
+        assertSame(arrows.get(0), inventory.getFirst(Arrow.class));
+        assertSame(wood, inventory.getEntity(wood.getId()));
+        assertEquals(arrows, inventory.getEntities(Arrow.class));
+        assertEquals(List.of("bow"), inventory.getBuildables(0));
+
+        inventory.remove(arrows.get(0));
+        assertEquals(2, inventory.count(Arrow.class));
+        assertSame(arrows.get(1), inventory.getFirst(Arrow.class));
+        assertNull(inventory.getEntity(arrows.get(0).getId()));
+        assertEquals(List.of(), inventory.getBuildables(0));
+
+        // removing something that was never added changes nothing
+        inventory.remove(arrows.get(0));
+        assertEquals(2, inventory.count(Arrow.class));
+        assertEquals(3, inventory.getEntities().size());
+    }
+
+    @Test
+    @Tag("5-8")
+    @DisplayName("Test that a config can replace a built-in recipe and add a new one")
+    public void customRecipesFromConfig() {
+        JSONObject config = new JSONObject("{ \"recipes\": ["
+            + "{ \"name\": \"bow\", \"requires\": [[{ \"item\": \"wood\" }]] },"
+            + "{ \"name\": \"sword\", \"requires\": ["
+            + "[{ \"item\": \"wood\", \"count\": 2 }], [{ \"item\": \"treasure\", \"consumed\": false }]] }"
+            + "] }");
+        RecipeBook recipes = RecipeBook.fromConfig(config);
+        assertEquals(List.of("bow", "shield", "midnight_armour", "sceptre", "sword"), recipes.getNames());
+
+        Inventory inventory = new Inventory(recipes);
+        inventory.add(new Wood(new Position(0, 0)));
+        assertEquals(List.of("bow"), inventory.getBuildables(0));
+
+        inventory.add(new Wood(new Position(0, 0)));
+        inventory.add(new Treasure(new Position(0, 0)));
+        assertEquals(List.of("bow", "shield", "sword"), inventory.getBuildables(0));
+
+        InventoryItem sword = inventory.buildItem(null, "sword", new EntityFactory(config), 0);
+        assertTrue(sword instanceof Sword);
+        assertEquals(0, inventory.count(Wood.class));
+        assertEquals(1, inventory.count(Treasure.class));
+        assertEquals(List.of(), inventory.getBuildables(0));
+    }
+
+    @Test
+    @Tag("5-9")
+    @DisplayName("Test that one item never meets two requirements of a recipe")
+    public void overlappingRequirementsCountedTogether() {
+        JSONObject config = new JSONObject("{ \"recipes\": ["
+            + "{ \"name\": \"bow\", \"requires\": [[{ \"item\": \"wood\" }],"
+            + " [{ \"item\": \"wood\" }, { \"item\": \"arrow\" }]] }"
+            + "] }");
+        Inventory inventory = new Inventory(RecipeBook.fromConfig(config));
+        EntityFactory factory = new EntityFactory(config);
+        inventory.add(new Wood(new Position(0, 0)));
+        assertEquals(List.of(), inventory.getBuildables(0));
+        assertNull(inventory.buildItem(null, "bow", factory, 0));
+        assertEquals(1, inventory.count(Wood.class));
+
+        // the second requirement falls back to the arrow when the only wood is taken
+        inventory.add(new Arrow(new Position(0, 0)));
+        assertEquals(List.of("bow"), inventory.getBuildables(0));
+        assertTrue(inventory.buildItem(null, "bow", factory, 0) instanceof Bow);
+        assertEquals(0, inventory.count(Wood.class));
+        assertEquals(0, inventory.count(Arrow.class));
+
+        inventory.add(new Wood(new Position(0, 0)));
+        inventory.add(new Wood(new Position(0, 0)));
+        assertTrue(inventory.buildItem(null, "bow", factory, 0) instanceof Bow);
+        assertEquals(0, inventory.count(Wood.class));
+    }
+
+    @Test
+    @Tag("5-10")
+    @DisplayName("Test that recipes for things that can't be built are refused and never use up ingredients")
+    public void unbuildableRecipeProducts() {
+        for (String product : List.of("key", "door", "player", "wall", "dragon")) {
+            JSONObject config = new JSONObject("{ \"recipes\": [{ \"name\": \"" + product
+                + "\", \"requires\": [[{ \"item\": \"wood\" }]] }] }");
+            assertThrows(IllegalArgumentException.class, () -> RecipeBook.fromConfig(config), product);
+        }
+
+        // a book built in code isn't checked, so building must still leave the inventory alone
+        Recipe key = new Recipe("key", List.of(List.of(new Recipe.Ingredient("wood", 1, true))), false);
+        Inventory inventory = new Inventory(new RecipeBook(List.of(key)));
+        inventory.add(new Wood(new Position(0, 0)));
+        assertEquals(List.of("key"), inventory.getBuildables(0));
+        assertNull(inventory.buildItem(null, "key", new EntityFactory(new JSONObject()), 0));
+        assertEquals(1, inventory.count(Wood.class));
+    }
 }
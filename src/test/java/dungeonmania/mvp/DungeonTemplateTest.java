@@ -0,0 +1,75 @@
+package dungeonmania.mvp;
+
+import dungeonmania.DungeonTemplate;
+import dungeonmania.Game;
+import dungeonmania.GameBuilder;
+import dungeonmania.ResourceCatalog;
+import dungeonmania.entities.Entity;
+import dungeonmania.persistence.GameCodec;
+import dungeonmania.persistence.SaveRecord;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DungeonTemplateTest {
+    @Test
+    @Tag("26-1")
+    @DisplayName("Test every dungeon stamps the same game the builder builds, apart from ids")
+    public void testStampedGameMatchesBuiltGame() {
+        for (String dungeon : ResourceCatalog.dungeons()) {
+            Game built = new GameBuilder().setDungeonName(dungeon).setConfigName("simple").buildGame();
+            Game stamped = DungeonTemplate.compile(dungeon, "simple").newGame();
+
+            // entities are indexed in the order they were placed, which is file order for both
+            List<Entity> builtEntities = built.getMap().getEntities(Entity.class);
+            List<Entity> stampedEntities = stamped.getMap().getEntities(Entity.class);
+            assertEquals(builtEntities.size(), stampedEntities.size(), dungeon);
+            Map<String, String> ids = new HashMap<>();
+            ids.put(stamped.getId(), built.getId());
+            for (int i = 0; i < builtEntities.size(); i++) {
+                assertNotEquals(builtEntities.get(i).getId(), stampedEntities.get(i).getId(), dungeon);
+                ids.put(stampedEntities.get(i).getId(), builtEntities.get(i).getId());
+            }
+
+            SaveRecord expected = GameCodec.toRecord(built);
+            SaveRecord actual = GameCodec.toRecord(stamped).withIds(id -> ids.getOrDefault(id, id));
+            assertEquals(expected, actual, dungeon);
+        }
+    }
+
+    @Test
+    @Tag("26-2")
+    @DisplayName("Test games stamped from one template are independent")
+    public void testStampedGamesAreIndependent() {
+        DungeonTemplate template = DungeonTemplate.compile("d_PortalsTest_testTeleportationBothWays",
+            "c_PortalsTest_testTeleportationBothWays");
+        Game first = template.newGame();
+        Game second = template.newGame();
+
+        Set<String> ids = new HashSet<>();
+        for (Game game : List.of(first, second)) {
+            assertTrue(ids.add(game.getId()));
+            for (Entity e : game.getMap().getEntities(Entity.class)) {
+                assertTrue(ids.add(e.getId()));
+            }
+        }
+
+        // each game's portals are paired with each other, not with another game's
+        first.tick(Direction.RIGHT);
+        assertEquals(1, TestUtils.getManhattanDistance(new Position(4, 1), first.getPlayer().getPosition()));
+        assertEquals(new Position(0, 1), second.getPlayer().getPosition());
+        second.tick(Direction.RIGHT);
+        assertEquals(1, TestUtils.getManhattanDistance(new Position(4, 1), second.getPlayer().getPosition()));
+    }
+}
@@ -0,0 +1,182 @@
+package dungeonmania.mvp;
+
+import dungeonmania.Game;
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.Entity;
+import dungeonmania.entities.Player;
+import dungeonmania.entities.Switch;
+import dungeonmania.entities.Wall;
+import dungeonmania.entities.collectables.Bomb;
+import dungeonmania.entities.collectables.Collectable;
+import dungeonmania.entities.enemies.Enemy;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.entities.enemies.ZombieToast;
+import dungeonmania.exceptions.InvalidActionException;
+import dungeonmania.map.GameMap;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameMapTest {
+    private static Game newGame(String dungeonName, String configName) {
+        return new GameBuilder().setDungeonName(dungeonName).setConfigName(configName).buildGame();
+    }
+
+    /**
+     * Every entity on the map lives in exactly one node, at its own position,
+     * and can be looked up by its id and by any of its types.
+     */
+    private static void assertIndexConsistent(GameMap map) {
+        List<Entity> entities = map.getEntities();
+        assertEquals(entities.size(), new HashSet<>(entities).size());
+        for (Entity e : entities) {
+            assertSame(e, map.getEntity(e.getId()));
+            assertTrue(map.getEntities(e.getPosition()).contains(e));
+            assertTrue(map.getEntities(e.getClass()).contains(e));
+        }
+        assertEquals(entities.size(), map.countEntities(Entity.class));
+        for (Class<? extends Entity> type : List.of(Enemy.class, Collectable.class, Switch.class, Player.class)) {
+            assertEquals(
+                entities.stream().filter(type::isInstance).collect(Collectors.toSet()),
+                new HashSet<>(map.getEntities(type)));
+        }
+    }
+
+    @Test
+    @Tag("21-1")
+    @DisplayName("Test the entity indexes drop entities destroyed by a bomb")
+    public void testIndexAfterExplosion() throws InvalidActionException {
+        Game game = newGame("d_bombTest_placeCardinallyActive", "c_bombTest_placeCardinallyActive");
+        GameMap map = game.getMap();
+        List<String> ids = map.getEntities().stream().map(Entity::getId).collect(Collectors.toList());
+        assertIndexConsistent(map);
+
+        // activate the switch, pick up the bomb and place it next to the switch
+        game.tick(Direction.RIGHT);
+        game.tick(Direction.DOWN);
+        game.tick(Direction.RIGHT);
+        game.tick(game.getPlayer().getInventoryEntities(Bomb.class).get(0).getId());
+
+        assertIndexConsistent(map);
+        List<String> remaining = map.getEntities().stream().map(Entity::getId).collect(Collectors.toList());
+        assertTrue(remaining.size() < ids.size());
+        ids.stream()
+            .filter(id -> !remaining.contains(id))
+            .forEach(id -> assertNull(map.getEntity(id)));
+    }
+
+    @Test
+    @Tag("21-2")
+    @DisplayName("Test the entity indexes follow the player through portals")
+    public void testIndexAfterTeleport() {
+        Game game = newGame("d_PortalsTest_testTeleportationBothWays", "c_PortalsTest_testTeleportationBothWays");
+        GameMap map = game.getMap();
+
+        game.tick(Direction.RIGHT);
+        assertIndexConsistent(map);
+        assertEquals(1, map.getEntities(game.getPlayer().getPosition()).size());
+
+        game.tick(Direction.LEFT);
+        game.tick(Direction.RIGHT);
+        assertIndexConsistent(map);
+    }
+
+    @Test
+    @Tag("21-3")
+    @DisplayName("Test the entity indexes pick up spawned enemies and survive serialisation")
+    public void testIndexAfterSpawnAndLoad() throws IOException, ClassNotFoundException {
+        Game game = newGame("d_zombieTest_toastSpawnXTicks", "c_zombieTest_toastSpawn5Ticks");
+        for (int i = 0; i < 10; i++) {
+            game.tick(Direction.UP);
+        }
+        GameMap map = game.getMap();
+        assertIndexConsistent(map);
+        assertTrue(map.getEntities(ZombieToast.class).size() > 0);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(game);
+        }
+        Game loaded;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            loaded = (Game) in.readObject();
+        }
+        assertIndexConsistent(loaded.getMap());
+        assertEquals(map.getEntities().size(), loaded.getMap().getEntities().size());
+    }
+
+    @Test
+    @Tag("21-4")
+    @DisplayName("Test a horde of mercenaries sharing the player distance field all take shortest-path steps")
+    public void testDistanceFieldSteps() {
+        Game game = newGame("d_GameMapTest_mercenaryHorde", "c_mercenaryTest_allyMovement");
+        GameMap map = game.getMap();
+        List<Mercenary> mercenaries = map.getEntities(Mercenary.class);
+        assertEquals(60, mercenaries.size());
+
+        Map<Position, Integer> dist = bfsFromPlayer(map);
+        for (Mercenary mercenary : mercenaries) {
+            Position step = map.pathFindToPlayer(mercenary);
+            assertTrue(Position.isAdjacent(mercenary.getPosition(), step));
+            assertEquals(dist.get(mercenary.getPosition()) - 1, (int) dist.get(step));
+        }
+    }
+
+    // step counts to the player avoiding walls, over a box around the dungeon
+    private static Map<Position, Integer> bfsFromPlayer(GameMap map) {
+        Set<Position> walls = map.getEntities(Wall.class).stream().map(Wall::getPosition).collect(Collectors.toSet());
+        Map<Position, Integer> dist = new HashMap<>();
+        Queue<Position> queue = new ArrayDeque<>();
+        Position start = new Position(map.getPlayerPosition().getX(), map.getPlayerPosition().getY());
+        dist.put(start, 0);
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            Position curr = queue.poll();
+            for (Position next : curr.getCardinallyAdjacentPositions()) {
+                if (Math.abs(next.getX()) > 20 || Math.abs(next.getY()) > 20) continue;
+                if (walls.contains(next) || dist.containsKey(next)) continue;
+                dist.put(next, dist.get(curr) + 1);
+                queue.add(next);
+            }
+        }
+        return dist;
+    }
+
+    @Test
+    @Tag("21-5")
+    @DisplayName("Test cached walkability is refreshed when a door opens")
+    public void testWalkabilityAfterDoorOpens() {
+        Game game = newGame("d_DoorsKeysTest_useKeyWalkThroughOpenDoor", "c_DoorsKeysTest_useKeyWalkThroughOpenDoor");
+        GameMap map = game.getMap();
+        Position door = new Position(3, 1);
+        ZombieToast zombie = new ZombieToast(new Position(3, 2), 1, 1);
+
+        assertFalse(map.canMoveTo(zombie, door));
+        assertFalse(map.canMoveTo(zombie, door));
+
+        // pick up the key and open the door
+        game.tick(Direction.RIGHT);
+        game.tick(Direction.RIGHT);
+        assertEquals(door, game.getPlayer().getPosition());
+        assertTrue(map.canMoveTo(zombie, door));
+    }
+}
@@ -2,6 +2,7 @@ package dungeonmania.mvp;
 
 import dungeonmania.DungeonManiaController;
 import dungeonmania.exceptions.InvalidActionException;
+import dungeonmania.response.models.DungeonDelta;
 import dungeonmania.response.models.DungeonResponse;
 import dungeonmania.util.Direction;
 import org.junit.jupiter.api.DisplayName;
@@ -87,4 +88,60 @@ public class InterfaceTest {
         }
 
     }
+
+    @Test
+    @Tag("2-6")
+    @DisplayName("Testing deltas only carry what changed, falling back to a full snapshot on a stale version")
+    public void testDeltaInterface() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame(
+             "d_InterfaceTest_testNewGameInterfaceNormalOperation",
+             "c_InterfaceTest_testNewGameInterfaceNormalOperation");
+
+        DungeonDelta first = dmc.getDelta(0);
+        assertTrue(first.isFull());
+        assertEquals(res.getEntities().size(), first.getEntities().size());
+
+        res = dmc.tick(Direction.RIGHT);
+        DungeonDelta delta = dmc.getDelta(first.getVersion());
+        assertFalse(delta.isFull());
+        assertEquals(1, delta.getEntities().size());
+        assertEquals("player", delta.getEntities().get(0).getType());
+        assertEquals(TestUtils.getPlayer(res).get().getPosition(), delta.getEntities().get(0).getPosition());
+        assertTrue(delta.getRemovedEntities().isEmpty());
+        assertEquals(TestUtils.getGoals(res), delta.getGoals());
+
+        // nothing changed since the last delta
+        assertTrue(dmc.getDelta(delta.getVersion()).getEntities().isEmpty());
+
+        // a client that missed a delta gets everything again
+        DungeonDelta stale = dmc.getDelta(first.getVersion());
+        assertTrue(stale.isFull());
+        assertEquals(res.getEntities().size(), stale.getEntities().size());
+    }
+
+    @Test
+    @Tag("2-7")
+    @DisplayName("Testing actions asked for a delta play the same as the rest and return only what changed")
+    public void testActionDeltas() {
+        DungeonManiaController full = new DungeonManiaController();
+        DungeonManiaController deltas = new DungeonManiaController();
+        full.newGame("d_InterfaceTest_testNewGameInterfaceNormalOperation",
+             "c_InterfaceTest_testNewGameInterfaceNormalOperation");
+        deltas.newGame("d_InterfaceTest_testNewGameInterfaceNormalOperation",
+             "c_InterfaceTest_testNewGameInterfaceNormalOperation");
+        DungeonDelta first = deltas.getDelta(0);
+
+        DungeonResponse res = full.tick(Direction.RIGHT);
+        DungeonDelta delta = deltas.tick(Direction.RIGHT, first.getVersion());
+        assertFalse(delta.isFull());
+        assertEquals(1, delta.getEntities().size());
+        assertEquals(TestUtils.getPlayer(res).get().getPosition(), delta.getEntities().get(0).getPosition());
+
+        // a rejected action doesn't tick or hand out a version
+        long version = delta.getVersion();
+        assertThrows(IllegalArgumentException.class, () -> deltas.build("key", version));
+        assertThrows(IllegalArgumentException.class, () -> deltas.interact("nothing", version));
+        assertTrue(deltas.getDelta(version).getEntities().isEmpty());
+    }
 }
@@ -11,7 +11,15 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -637,4 +645,89 @@ public class PersistenceTest {
         assertThrows(IllegalArgumentException.class, () -> dmc.loadGame("kjdhakudhaih27idhka2hdk2hd"));
 
     }
+
+    @Test
+    @Tag("19-20")
+    @DisplayName("Test a compressed save plays on exactly as the game it was saved from")
+    public void testCompressedReplay() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame("d_GameMapTest_mercenaryHorde", "c_mercenaryTest_allyMovement");
+        res = dmc.tick(Direction.RIGHT);
+        res = dmc.tick(Direction.RIGHT);
+
+        dmc.setCompressSaves(true);
+        DungeonResponse saved = dmc.saveGame("test");
+        List<DungeonResponse> played = new ArrayList<>();
+        for (Direction d : List.of(Direction.DOWN, Direction.RIGHT, Direction.UP)) {
+            played.add(dmc.tick(d));
+        }
+
+        res = dmc.loadGame("test");
+        assertEquals(entitiesById(saved), entitiesById(res));
+        assertEquals(saved.getGoals(), res.getGoals());
+        int i = 0;
+        for (Direction d : List.of(Direction.DOWN, Direction.RIGHT, Direction.UP)) {
+            res = dmc.tick(d);
+            assertEquals(entitiesById(played.get(i)), entitiesById(res));
+            assertEquals(played.get(i).getBattles().size(), res.getBattles().size());
+            i++;
+        }
+    }
+
+    private static Map<String, String> entitiesById(DungeonResponse res) {
+        Map<String, String> entities = new HashMap<>();
+        res.getEntities().forEach(e -> entities.put(e.getId(), e.getType() + " " + e.getPosition()));
+        return entities;
+    }
+
+    @Test
+    @Tag("19-21")
+    @DisplayName("Test a file that isn't a save, or whose body is corrupt, can't be loaded")
+    public void testNotASave() throws IOException {
+        DungeonManiaController dmc = new DungeonManiaController();
+        dmc.newGame("d_persistenceTest_buildable", "c_persistenceTest_basic");
+        Files.createDirectories(Paths.get("build/saves"));
+        Files.write(Paths.get("build/saves/notASave"), "not a save".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> dmc.loadGame("notASave"));
+
+        // a good header with a body that isn't a game
+        byte[] header = {'D', 'M', 'S', 'V', 0, 1, 0};
+        List<byte[]> bodies = new ArrayList<>();
+        // a string of negative length, then one claiming nearly 2GB
+        bodies.add(new byte[] {0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+        bodies.add(new byte[] {0, (byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+        // a record holding a record holding a record, and so on far deeper than any game
+        byte[] nested = new byte[8 + 4 * 100000];
+        System.arraycopy(new byte[] {0, 1, 'g', 1, 0, 1, 'r', 7}, 0, nested, 0, 8);
+        for (int i = 8; i < nested.length; i += 4) {
+            nested[i] = 1;
+            nested[i + 1] = 1;
+            nested[i + 2] = 2;
+            nested[i + 3] = 7;
+        }
+        bodies.add(nested);
+        // a record whose config is a string that isn't JSON
+        bodies.add(new byte[] {0, 4, 'g', 'a', 'm', 'e', 1, 0, 6, 'c', 'o', 'n', 'f', 'i', 'g', 5, 0, 1, '['});
+        for (byte[] body : bodies) {
+            byte[] save = Arrays.copyOf(header, header.length + body.length);
+            System.arraycopy(body, 0, save, header.length, body.length);
+            Files.write(Paths.get("build/saves/notASave"), save);
+            assertThrows(IllegalArgumentException.class, () -> dmc.loadGame("notASave"));
+        }
+
+        // a real save with any one byte of its body flipped either loads or is refused
+        dmc.saveGame("corrupted");
+        byte[] good = Files.readAllBytes(Paths.get("build/saves/corrupted"));
+        for (int i = header.length; i < good.length; i++) {
+            byte[] save = good.clone();
+            save[i] ^= (byte) 0xFF;
+            Files.write(Paths.get("build/saves/notASave"), save);
+            try {
+                dmc.loadGame("notASave");
+            } catch (IllegalArgumentException e) {
+                // refused, as it should be if the game doesn't hold together
+            }
+        }
+    }
 }
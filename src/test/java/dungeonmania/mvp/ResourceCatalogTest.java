@@ -0,0 +1,48 @@
+package dungeonmania.mvp;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.ResourceCatalog;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResourceCatalogTest {
+    @Test
+    @Tag("25-1")
+    @DisplayName("Test the catalog lists dungeons and configs by name")
+    public void testCatalogNames() {
+        assertTrue(ResourceCatalog.dungeons().contains("maze"));
+        assertTrue(ResourceCatalog.configs().contains("simple"));
+        assertTrue(ResourceCatalog.hasDungeon("d_movementTest_testMovementDown"));
+        assertFalse(ResourceCatalog.hasDungeon("simple"));
+        assertFalse(ResourceCatalog.hasConfig("maze"));
+        assertSame(DungeonManiaController.dungeons(), DungeonManiaController.dungeons());
+    }
+
+    @Test
+    @Tag("25-2")
+    @DisplayName("Test games built from the same cached dungeon don't share state")
+    public void testGamesFromSameTemplate() {
+        assertSame(ResourceCatalog.getConfig("simple"), ResourceCatalog.getConfig("simple"));
+        assertSame(ResourceCatalog.getDungeon("maze"), ResourceCatalog.getDungeon("maze"));
+
+        DungeonManiaController first = new DungeonManiaController();
+        DungeonManiaController second = new DungeonManiaController();
+        String dungeon = "d_movementTest_testMovementDown";
+        String config = "c_movementTest_testMovementDown";
+        DungeonResponse a = first.newGame(dungeon, config);
+        first.tick(Direction.DOWN);
+
+        DungeonResponse b = second.newGame(dungeon, config);
+        assertNotEquals(a.getDungeonId(), b.getDungeonId());
+        assertEquals(new Position(1, 1), TestUtils.getPlayerPos(b));
+        assertEquals(new Position(1, 3), TestUtils.getPlayerPos(first.tick(Direction.DOWN)));
+        assertEquals(new Position(1, 2), TestUtils.getPlayerPos(second.tick(Direction.DOWN)));
+    }
+}
@@ -0,0 +1,121 @@
+package dungeonmania.mvp;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.Game;
+import dungeonmania.GameBuilder;
+import dungeonmania.ResourceCatalog;
+import dungeonmania.entities.collectables.Bomb;
+import dungeonmania.exceptions.InvalidActionException;
+import dungeonmania.persistence.GameCodec;
+import dungeonmania.persistence.SaveRecord;
+import dungeonmania.persistence.TickHistory;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RewindTest {
+
+    @Test
+    @Tag("23-1")
+    @DisplayName("Test rewinding undoes a battle and play can carry on")
+    public void testRewindBattle() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame("d_persistenceTest_battle", "c_persistenceTest_basic");
+
+        res = dmc.tick(Direction.RIGHT);
+        Position before = TestUtils.getPlayer(res).get().getPosition();
+        Position mercBefore = TestUtils.getEntities(res, "mercenary").get(0).getPosition();
+        res = dmc.tick(Direction.RIGHT);
+        assertEquals(0, TestUtils.getEntities(res, "mercenary").size());
+        assertEquals(1, res.getBattles().size());
+
+        // back to before the battle
+        res = dmc.rewind(1);
+        assertEquals(before, TestUtils.getPlayer(res).get().getPosition());
+        assertEquals(mercBefore, TestUtils.getEntities(res, "mercenary").get(0).getPosition());
+        assertEquals(0, res.getBattles().size());
+
+        // the battle happens again when the move is replayed
+        res = dmc.tick(Direction.RIGHT);
+        assertEquals(0, TestUtils.getEntities(res, "mercenary").size());
+        assertEquals(1, res.getBattles().size());
+    }
+
+    @Test
+    @Tag("23-2")
+    @DisplayName("Test rewinding is limited to the configured history")
+    public void testRewindDepth() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        DungeonResponse res = dmc.newGame("d_persistenceTest_playerPosition", "c_rewindTest_shortHistory");
+
+        assertThrows(IllegalArgumentException.class, () -> dmc.rewind(1));
+
+        res = dmc.tick(Direction.RIGHT);
+        assertEquals(new Position(2, 1), TestUtils.getPlayer(res).get().getPosition());
+        res = dmc.tick(Direction.RIGHT);
+        res = dmc.tick(Direction.RIGHT);
+
+        assertThrows(IllegalArgumentException.class, () -> dmc.rewind(0));
+        assertThrows(IllegalArgumentException.class, () -> dmc.rewind(3));
+        res = dmc.rewind(2);
+        assertEquals(new Position(2, 1), TestUtils.getPlayer(res).get().getPosition());
+
+        // the ticks rewound past are gone
+        assertThrows(IllegalArgumentException.class, () -> dmc.rewind(1));
+    }
+
+    @Test
+    @Tag("23-3")
+    @DisplayName("Test a config can turn rewinding off")
+    public void testRewindOff() {
+        DungeonManiaController dmc = new DungeonManiaController();
+        dmc.newGame("d_persistenceTest_playerPosition", "c_rewindTest_noHistory");
+        dmc.tick(Direction.RIGHT);
+        dmc.tick(Direction.RIGHT);
+
+        assertThrows(IllegalArgumentException.class, () -> dmc.rewind(1));
+    }
+
+    @Test
+    @Tag("23-4")
+    @DisplayName("Test snapshots built from the entities that changed match saving the whole game, in every dungeon")
+    public void testIncrementalSnapshots() throws IOException, InvalidActionException {
+        Direction[] directions = {Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT};
+        for (String dungeon : ResourceCatalog.dungeons()) {
+            Game game = new GameBuilder().setDungeonName(dungeon).setConfigName("simple").buildGame();
+            Random random = new Random(dungeon.hashCode());
+            TickHistory history = new TickHistory(40);
+            List<SaveRecord> expected = new ArrayList<>();
+            history.record(game);
+            expected.add(GameCodec.toRecord(game));
+            for (int i = 0; i < 30 && game.getMap().getEntity(game.getPlayer().getId()) != null; i++) {
+                Bomb bomb = game.getPlayer().getInventoryEntities(Bomb.class).stream().findFirst().orElse(null);
+                if (bomb != null && random.nextInt(4) == 0) {
+                    game.tick(bomb.getId());
+                } else {
+                    game.tick(directions[random.nextInt(directions.length)]);
+                }
+                history.record(game);
+                expected.add(GameCodec.toRecord(game));
+            }
+
+            // both go through loading, so entities come back in the same order if the records agree
+            for (int k = expected.size() - 2; k >= 0; k--) {
+                Game rewound = history.rewind(1);
+                assertEquals(GameCodec.toRecord(GameCodec.fromRecord(expected.get(k))), GameCodec.toRecord(rewound),
+                    dungeon + " tick " + k);
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package dungeonmania.mvp;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.SessionRegistry;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionRegistryTest {
+    @Test
+    @Tag("24-1")
+    @DisplayName("Test each session keeps its own controller")
+    public void testSessionsAreSeparate() {
+        SessionRegistry sessions = new SessionRegistry();
+        DungeonManiaController a = sessions.call("a", dmc -> dmc);
+        DungeonManiaController b = sessions.call("b", dmc -> dmc);
+
+        assertNotSame(a, b);
+        assertSame(a, sessions.call("a", dmc -> dmc));
+        assertEquals(2, sessions.size());
+    }
+
+    @Test
+    @Tag("24-2")
+    @DisplayName("Test calls for one session run one at a time")
+    public void testSameSessionIsSerial() throws Exception {
+        SessionRegistry sessions = new SessionRegistry();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        int[] counter = {0};
+        int[] inside = {0};
+        boolean[] overlapped = {false};
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            calls.add(pool.submit(() -> sessions.call("same", dmc -> {
+                if (++inside[0] > 1) overlapped[0] = true;
+                counter[0]++;
+                inside[0]--;
+                return null;
+            })));
+        }
+        for (Future<?> call : calls) call.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertFalse(overlapped[0]);
+        assertEquals(2000, counter[0]);
+    }
+
+    @Test
+    @Tag("24-3")
+    @DisplayName("Test calls for different sessions run at the same time")
+    public void testSessionsRunInParallel() throws Exception {
+        SessionRegistry sessions = new SessionRegistry();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        // each call waits for the other to start, which only works if neither blocks the other
+        CountDownLatch bothInside = new CountDownLatch(2);
+        List<Future<Boolean>> calls = new ArrayList<>();
+        for (String session : List.of("a", "b")) {
+            calls.add(pool.submit(() -> sessions.call(session, dmc -> {
+                bothInside.countDown();
+                try {
+                    return bothInside.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            })));
+        }
+        for (Future<Boolean> call : calls) assertTrue(call.get(10, TimeUnit.SECONDS));
+        pool.shutdown();
+    }
+
+    @Test
+    @Tag("24-4")
+    @DisplayName("Test only the most recently used games are kept in memory")
+    public void testLiveGamesAreCapped() throws Exception {
+        Path spillDirectory = Files.createTempDirectory("sessions");
+        // each session is used a second after the last, so which is oldest is never a tie
+        MutableClock clock = new MutableClock();
+        SessionRegistry sessions = new SessionRegistry(2, null, null, spillDirectory, clock);
+        for (String session : List.of("a", "b", "c")) {
+            sessions.call(session, dmc -> newGame(dmc));
+            clock.advance(Duration.ofSeconds(1));
+        }
+
+        SessionRegistry.Stats stats = sessions.getStats();
+        assertEquals(3, stats.getSessions());
+        assertEquals(2, stats.getLive());
+        assertEquals(1, stats.getSpilled());
+        try (var files = Files.list(spillDirectory)) {
+            assertEquals(1, files.count());
+        }
+
+        // a was used longest ago, so reading it back spills the next oldest, b
+        sessions.call("a", dmc -> dmc.tick(Direction.DOWN));
+        stats = sessions.getStats();
+        assertEquals(2, stats.getLive());
+        assertEquals(1, stats.getSpilled());
+        assertEquals(2, stats.getTotalSpills());
+        assertEquals(1, stats.getTotalFaults());
+    }
+
+    @Test
+    @Tag("24-5")
+    @DisplayName("Test a spilled game carries on where it left off")
+    public void testSpilledGameIsReadBack() throws Exception {
+        Path spillDirectory = Files.createTempDirectory("sessions");
+        MutableClock clock = new MutableClock();
+        SessionRegistry sessions = new SessionRegistry(1, null, null, spillDirectory, clock);
+        DungeonResponse before = sessions.call("a", dmc -> {
+            newGame(dmc);
+            return dmc.tick(Direction.DOWN);
+        });
+        clock.advance(Duration.ofSeconds(1));
+        sessions.call("b", dmc -> newGame(dmc));
+        assertEquals(1, sessions.getStats().getSpilled());
+
+        DungeonResponse after = sessions.call("a", dmc -> dmc.tick(Direction.DOWN));
+        assertEquals(before.getDungeonId(), after.getDungeonId());
+        assertEquals(new Position(1, 3), TestUtils.getPlayerPos(after));
+        assertEquals("", TestUtils.getGoals(after));
+        assertEquals(1, sessions.getStats().getTotalFaults());
+    }
+
+    @Test
+    @Tag("24-6")
+    @DisplayName("Test idle games are spilled and unused sessions are forgotten")
+    public void testIdleSessions() throws Exception {
+        Path spillDirectory = Files.createTempDirectory("sessions");
+        MutableClock clock = new MutableClock();
+        SessionRegistry sessions = new SessionRegistry(10, Duration.ofMinutes(10), Duration.ofHours(1),
+            spillDirectory, clock);
+        sessions.call("a", dmc -> newGame(dmc));
+        sessions.call("b", dmc -> newGame(dmc));
+
+        clock.advance(Duration.ofMinutes(5));
+        sessions.call("b", dmc -> dmc.tick(Direction.DOWN));
+        clock.advance(Duration.ofMinutes(6));
+        sessions.sweep();
+        assertEquals(1, sessions.getStats().getLive());
+        assertEquals(1, sessions.getStats().getSpilled());
+
+        clock.advance(Duration.ofMinutes(50));
+        sessions.sweep();
+        // a's spilled game goes with it, while b has now been idle long enough to be spilled
+        assertEquals(1, sessions.size());
+        assertEquals(1, sessions.getStats().getTotalExpired());
+        assertEquals(0, sessions.getStats().getLive());
+        assertEquals(1, sessions.getStats().getSpilled());
+        try (var files = Files.list(spillDirectory)) {
+            assertEquals(1, files.count());
+        }
+
+        // a comes back as a new session with no game
+        assertThrows(NullPointerException.class, () -> sessions.call("a", dmc -> dmc.tick(Direction.DOWN)));
+        assertEquals(2, sessions.size());
+    }
+
+    @Test
+    @Tag("24-7")
+    @DisplayName("Test many sessions stay within the live game limit")
+    public void testManySessions() throws Exception {
+        Path spillDirectory = Files.createTempDirectory("sessions");
+        SessionRegistry sessions = new SessionRegistry(16, null, null, spillDirectory, Clock.systemUTC());
+        for (int i = 0; i < 500; i++) {
+            sessions.call("session" + i, dmc -> newGame(dmc));
+            assertTrue(sessions.getStats().getLive() <= 16);
+        }
+        SessionRegistry.Stats stats = sessions.getStats();
+        assertEquals(500, stats.getSessions());
+        assertEquals(500, stats.getLive() + stats.getSpilled());
+
+        for (int i = 0; i < 500; i += 50) {
+            DungeonResponse res = sessions.call("session" + i, dmc -> dmc.tick(Direction.DOWN));
+            assertEquals(new Position(1, 2), TestUtils.getPlayerPos(res));
+        }
+    }
+
+    @Test
+    @Tag("24-8")
+    @DisplayName("Test a spilled game keeps appending its battles to its battle log file")
+    public void testSpilledGameKeepsBattleLogFile() throws Exception {
+        Path spillDirectory = Files.createTempDirectory("sessions");
+        MutableClock clock = new MutableClock();
+        SessionRegistry sessions = new SessionRegistry(1, null, null, spillDirectory, clock);
+        String sink = sessions.call("a", dmc -> {
+            dmc.newGame("d_battleTest_basicMercenary", "c_battleTests_basicMercenaryMercenaryDies");
+            return dmc.setBattleLogFile("sessionTest/spilled.jsonl");
+        });
+        Path file = Paths.get(sink);
+        Files.deleteIfExists(file);
+        clock.advance(Duration.ofSeconds(1));
+        sessions.call("b", dmc -> newGame(dmc));
+        assertEquals(1, sessions.getStats().getSpilled());
+
+        long battles = sessions.call("a", dmc -> {
+            dmc.tick(Direction.RIGHT);
+            dmc.tick(Direction.RIGHT);
+            return dmc.getBattleCursor();
+        });
+        assertEquals(1, sessions.getStats().getTotalFaults());
+        assertEquals(1, battles);
+        assertEquals(1, Files.readAllLines(file).size());
+    }
+
+    @Test
+    @Tag("24-9")
+    @DisplayName("Test a spilled game that can't be read back is dropped and the session can start again")
+    public void testUnreadableSpill() throws Exception {
+        Path spillDirectory = Files.createTempDirectory("sessions");
+        MutableClock clock = new MutableClock();
+        SessionRegistry sessions = new SessionRegistry(1, null, null, spillDirectory, clock);
+        sessions.call("a", dmc -> newGame(dmc));
+        clock.advance(Duration.ofSeconds(1));
+        sessions.call("b", dmc -> newGame(dmc));
+        try (var files = Files.list(spillDirectory)) {
+            Files.write(files.findFirst().get(), "DMSV not a game".getBytes());
+        }
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThrows(UncheckedIOException.class, () -> sessions.call("a", dmc -> dmc.tick(Direction.DOWN)));
+        SessionRegistry.Stats stats = sessions.getStats();
+        assertEquals(1, stats.getTotalFailedFaults());
+        assertEquals(0, stats.getTotalFaults());
+        assertEquals(0, stats.getSpilled());
+        try (var files = Files.list(spillDirectory)) {
+            assertEquals(0, files.count());
+        }
+
+        // only the game is lost, so the next call starts afresh
+        sessions.call("a", dmc -> newGame(dmc));
+        DungeonResponse res = sessions.call("a", dmc -> dmc.tick(Direction.DOWN));
+        assertEquals(new Position(1, 2), TestUtils.getPlayerPos(res));
+    }
+
+    private static DungeonResponse newGame(DungeonManiaController dmc) {
+        return dmc.newGame("d_movementTest_testMovementDown", "c_movementTest_testMovementDown");
+    }
+
+    // a clock the test moves forward by hand
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2022-01-01T00:00:00Z");
+
+        void advance(Duration by) {
+            now = now.plus(by);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
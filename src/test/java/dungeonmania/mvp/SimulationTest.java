@@ -0,0 +1,109 @@
+package dungeonmania.mvp;
+
+import dungeonmania.Game;
+import dungeonmania.ResourceCatalog;
+import dungeonmania.entities.Entity;
+import dungeonmania.simulation.Action;
+import dungeonmania.simulation.Outcome;
+import dungeonmania.simulation.Simulation;
+import dungeonmania.simulation.SimulationRunner;
+import dungeonmania.util.Direction;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationTest {
+    private static final String SPAWNERS = "d_zombieTest_multipleToastSpawn";
+    private static final String SPAWNERS_CONFIG = "c_zombieTest_multipleToastSpawn";
+
+    @Test
+    @Tag("27-1")
+    @DisplayName("Test games with the same seed make the same random choices")
+    public void testSameSeedSameGame() {
+        Game a = ResourceCatalog.getTemplate(SPAWNERS, SPAWNERS_CONFIG).newGame(7);
+        Game b = ResourceCatalog.getTemplate(SPAWNERS, SPAWNERS_CONFIG).newGame(7);
+        for (int i = 0; i < 30; i++) {
+            a.tick(Direction.UP);
+            b.tick(Direction.UP);
+            assertEquals(layout(a), layout(b), "tick " + i);
+        }
+        assertTrue(a.getMapEntities(Entity.class).size() > 10);
+    }
+
+    private static List<String> layout(Game game) {
+        return game.getMapEntities(Entity.class).stream()
+            .map(e -> e.getTypeName() + " " + e.getPosition())
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    @Tag("27-2")
+    @DisplayName("Test a script plays until the goals are met, skipping actions the game rejects")
+    public void testScriptPlaysToGoal() {
+        Outcome outcome = SimulationRunner.simulate(
+            new Simulation("d_basicGoalsTest_exit", "c_basicGoalsTest_exit", "use:bomb RIGHT RIGHT RIGHT LEFT", 1));
+        assertNull(outcome.getError());
+        assertTrue(outcome.isGoalAchieved());
+        assertTrue(outcome.isAlive());
+        assertEquals(2, outcome.getTicks());
+        assertEquals(1, outcome.getRejectedActions());
+        assertEquals(0, outcome.getBattles());
+
+        Outcome missing = SimulationRunner.simulate(new Simulation("no_such_dungeon", "simple", "RIGHT", 1));
+        assertNotNull(missing.getError());
+        assertFalse(missing.isGoalAchieved());
+    }
+
+    @Test
+    @Tag("27-3")
+    @DisplayName("Test scripts are parsed into actions and bad actions are refused")
+    public void testParseScript() {
+        List<Action> actions = Action.parseScript(" right UP use:bomb\n build:bow  interact:mercenary ");
+        assertEquals(List.of("RIGHT", "UP", "use:bomb", "build:bow", "interact:mercenary"),
+            actions.stream().map(Action::toString).collect(Collectors.toList()));
+        assertEquals(0, Action.parseScript("").size());
+
+        assertThrows(IllegalArgumentException.class, () -> Action.parseScript("RIGHT jump"));
+        assertThrows(IllegalArgumentException.class, () -> Action.parseScript("use:"));
+        assertThrows(IllegalArgumentException.class, () -> Action.parseScript("fly:bow"));
+    }
+
+    @Test
+    @Tag("27-4")
+    @DisplayName("Test a parallel batch streams the same outcomes as playing each game alone")
+    public void testParallelBatch() {
+        List<Simulation> simulations = new ArrayList<>();
+        Direction[] directions = {Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT};
+        for (int seed = 0; seed < 200; seed++) {
+            Random random = new Random(seed);
+            List<Action> script = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                script.add(Action.move(directions[random.nextInt(directions.length)]));
+            }
+            simulations.add(new Simulation("d_basicGoalsTest_spawner", "c_basicGoalsTest_spawner", script, seed));
+        }
+        List<String> expected = simulations.stream()
+            .map(s -> SimulationRunner.simulate(s).toString())
+            .collect(Collectors.toList());
+
+        List<String> streamed = new ArrayList<>();
+        List<String> ordered;
+        try (SimulationRunner runner = new SimulationRunner(4)) {
+            runner.run(simulations, outcome -> streamed.add(outcome.toString()));
+            ordered = runner.run(simulations).stream().map(Outcome::toString).collect(Collectors.toList());
+        }
+        assertEquals(expected, ordered);
+        Collections.sort(expected);
+        Collections.sort(streamed);
+        assertEquals(expected, streamed);
+    }
+}
@@ -1,6 +1,11 @@
 package dungeonmania.mvp;
 
 import dungeonmania.DungeonManiaController;
+import dungeonmania.Game;
+import dungeonmania.GameBuilder;
+import dungeonmania.entities.SwampTile;
+import dungeonmania.entities.enemies.Mercenary;
+import dungeonmania.map.GameMap;
 import dungeonmania.response.models.DungeonResponse;
 import dungeonmania.util.Direction;
 import dungeonmania.util.Position;
@@ -256,4 +261,21 @@ public class SwampTileTest {
         // Battle occurs with the player after 6 ticks
         assertEquals(1, res.getBattles().size());
     }
+
+    @Test
+    @Tag("18-10")
+    @DisplayName("Test that mercenaries stop going around a swamp tile once it is destroyed")
+    public void swampTileDestroyedPathing() {
+        Game game = new GameBuilder().setDungeonName("d_swampTileTest_destroyed")
+            .setConfigName("c_swampTileTest_mf10").buildGame();
+        GameMap map = game.getMap();
+        Mercenary mercenary = map.getEntities(Mercenary.class).get(0);
+
+        // the wall above (3, 1) means going around the swamp tile starts by going up
+        assertEquals(new Position(4, 0), map.pathFindToPlayer(mercenary));
+
+        // as a bomb would
+        map.destroyEntity(map.getEntities(SwampTile.class).get(0));
+        assertEquals(new Position(3, 1), map.pathFindToPlayer(mercenary));
+    }
 }
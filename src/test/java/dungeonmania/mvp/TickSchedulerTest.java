@@ -0,0 +1,61 @@
+package dungeonmania.mvp;
+
+import dungeonmania.Game;
+import dungeonmania.TickScheduler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TickSchedulerTest {
+    @Test
+    @Tag("22-1")
+    @DisplayName("Test callbacks run by priority, then in the order they were registered")
+    public void testOrder() {
+        TickScheduler scheduler = new TickScheduler();
+        List<String> ran = new ArrayList<>();
+        scheduler.register(() -> ran.add("ai1"), Game.AI_MOVEMENT, "ai1");
+        scheduler.register(() -> ran.add("callback"), Game.AI_MOVEMENT_CALLBACK, "callback");
+        scheduler.register(() -> ran.add("ai2"), Game.AI_MOVEMENT, "ai2");
+        scheduler.register(() -> ran.add("potion"), Game.PLAYER_MOVEMENT_CALLBACK, "potion");
+        scheduler.register(() -> ran.add("ai3"), Game.AI_MOVEMENT, "ai3");
+
+        for (int i = 0; i < 3; i++) {
+            ran.clear();
+            scheduler.registerOnce(() -> ran.add("player"), Game.PLAYER_MOVEMENT, "player");
+            scheduler.tick();
+            assertEquals(List.of("player", "potion", "ai1", "ai2", "ai3", "callback"), ran);
+        }
+    }
+
+    @Test
+    @Tag("22-2")
+    @DisplayName("Test callbacks registered or unsubscribed mid-tick take effect from the next tick")
+    public void testChangesDuringTick() {
+        TickScheduler scheduler = new TickScheduler();
+        List<String> ran = new ArrayList<>();
+        scheduler.register(() -> {
+            ran.add("spawner");
+            scheduler.register(() -> ran.add("spawned"), Game.AI_MOVEMENT, "spawned");
+        }, Game.PLAYER_MOVEMENT, "spawner");
+        scheduler.register(() -> {
+            ran.add("killer");
+            scheduler.unsubscribe("victim");
+        }, Game.PLAYER_MOVEMENT, "killer");
+        scheduler.register(() -> ran.add("victim"), Game.AI_MOVEMENT, "victim");
+
+        scheduler.tick();
+        assertEquals(List.of("spawner", "killer"), ran);
+
+        ran.clear();
+        scheduler.unsubscribe("spawner");
+        scheduler.unsubscribe("killer");
+        scheduler.tick();
+        assertEquals(List.of("spawned"), ran);
+    }
+}